@@ -0,0 +1,301 @@
+package multiarmedhyper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import multiarmedhyper.algorithm.Algorithm;
+
+// many runs in one process, jobs of instance, type and execution solved by a bounded pool
+// of workers, results are written as soon as each job ends
+final class BatchRunner {
+    
+    // one run of the batch with its own options
+    private static final class Job {
+        
+        final Options options;
+        final String name;
+        
+        // estimated megabytes used while the job runs
+        final int memory;
+        
+        Job(Options options, String name, int memory) {
+            this.options = options;
+            this.name = name;
+            this.memory = memory;
+        }
+    }
+    
+    // megabytes of a job besides its distance matrix
+    private static final int BASE_MEMORY = 16;
+    
+    private final Options options;
+    private final List<Job> jobs;
+    
+    // megabytes shared by the running jobs, null without budget
+    private final Semaphore budget;
+    
+    BatchRunner(Options options) {
+        this.options = options;
+        jobs = (options.manifest != null) ? readManifest() : matchGlob();
+        budget = (options.memory > 0) ? new Semaphore(options.memory, true) : null;
+    }
+    
+    void run() {
+        
+        if (jobs.isEmpty()) {
+            throw new AssertionError("Batch without jobs.");
+        }
+        
+        // results to file, terminal or only DB
+        PrintWriter out;
+        try {
+            if (options.csv != null) {
+                out = new PrintWriter(Files.newBufferedWriter(Paths.get(options.csv)));
+            } else if (options.dataConn[0] == null) {
+                out = new PrintWriter(System.out);
+            } else {
+                out = null;
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Problem opening results file.\n" + e.toString());
+        }
+        write(out, "instance,algorithm,ejec,objective,runtime,iterations,status");
+        
+        // solve all jobs
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(options.workers, jobs.size()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Job job : jobs) {
+                futures.add(pool.submit(() -> solve(job, out)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Batch interrupted.\n" + e.toString());
+        } catch (ExecutionException e) {
+            throw new AssertionError("Batch failed.\n" + e.getCause().toString());
+        } finally {
+            pool.shutdownNow();
+            if (out != null && options.csv != null) {
+                out.close();
+            }
+        }
+    }
+    
+    // solve one job within the memory budget, a failed job is reported and the batch goes on
+    private void solve(Job job, PrintWriter out) {
+        
+        int permits = (budget != null) ? Math.min(job.memory, options.memory) : 0;
+        try {
+            if (budget != null) {
+                budget.acquire(permits);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        
+        try {
+            Algorithm algorithm = MultiArmedHyper.solve(job.options);
+            write(out, job.name + "," + algorithm.algorithmName() + "," + job.options.ejec
+                    + "," + algorithm.getTotalCost() + "," + algorithm.getRunTime()
+                    + "," + algorithm.getIterations() + ","
+                    + (algorithm.isFeasible() ? "Feasible" : "No Feasible"));
+        } catch (RuntimeException | AssertionError e) {
+            System.err.println("job " + job.name + " type " + job.options.type
+                    + " ejec " + job.options.ejec + " failed: " + e.toString());
+            write(out, job.name + ",type " + job.options.type + "," + job.options.ejec
+                    + ",,,,Error");
+        } finally {
+            if (budget != null) {
+                budget.release(permits);
+            }
+        }
+    }
+    
+    private void write(PrintWriter out, String line) {
+        
+        if (out == null) {
+            return;
+        }
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+    
+    // lines of source, type, ejec and optional time limit, source is a file or a DB instance
+    private List<Job> readManifest() {
+        
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(Paths.get(options.manifest));
+        } catch (IOException e) {
+            throw new AssertionError("Problem reading manifest.\n" + e.toString());
+        }
+        
+        List<Job> list = new ArrayList<>();
+        for (String line : lines) {
+            
+            // skip comments and empty lines
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            
+            // job fields
+            String[] fields = line.split(",");
+            if (fields.length < 3) {
+                throw new AssertionError("Manifest line incorrect: " + line);
+            }
+            try {
+                String source = fields[0].trim();
+                int type = Integer.parseInt(fields[1].trim());
+                int ejec = Integer.parseInt(fields[2].trim());
+                Options job = newJob(source, type, ejec);
+                if (fields.length > 3) {
+                    job.limtime = Double.parseDouble(fields[3].trim());
+                    job.limTimeNumberOfNodes = false;
+                }
+                list.add(new Job(job, job.instance, estimate(job)));
+            } catch (NumberFormatException e) {
+                throw new AssertionError("Manifest line incorrect: " + line + "\n" + e.toString());
+            }
+        }
+        
+        return list;
+    }
+    
+    // files matching the glob for all the types and executions
+    private List<Job> matchGlob() {
+        
+        // walk from the directory before the first wildcard
+        String glob = options.glob;
+        int wildcard = glob.length();
+        for (char c : new char[] {'*', '?', '[', '{'}) {
+            if (glob.indexOf(c) >= 0) {
+                wildcard = Math.min(wildcard, glob.indexOf(c));
+            }
+        }
+        int slash = glob.lastIndexOf('/', wildcard);
+        Path root = Paths.get((slash >= 0) ? glob.substring(0, slash + 1) : ".");
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        
+        List<String> files;
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths.filter(Files::isRegularFile)
+                    .map(path -> (slash >= 0) ? path : root.relativize(path))
+                    .filter(matcher::matches)
+                    .map(Path::toString)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new AssertionError("Problem reading instances.\n" + e.toString());
+        }
+        
+        // all combinations
+        List<Integer> types = parseList(options.types, options.type);
+        List<Integer> ejecs = parseList(options.ejecs, options.ejec);
+        List<Job> list = new ArrayList<>();
+        for (String file : files) {
+            for (int type : types) {
+                for (int ejec : ejecs) {
+                    Options job = newJob(file, type, ejec);
+                    list.add(new Job(job, job.instance, estimate(job)));
+                }
+            }
+        }
+        
+        return list;
+    }
+    
+    // copy of the options for one job, jobs never print to the terminal
+    private Options newJob(String source, int type, int ejec) {
+        
+        Options job = new Options(options);
+        if (options.dataConn[0] != null) {
+            job.instance = source;
+        } else {
+            job.file = source;
+            String name = Paths.get(source).getFileName().toString();
+            job.instance = (name.contains(".")) ? name.substring(0, name.lastIndexOf('.')) : name;
+        }
+        job.type = type;
+        job.ejec = ejec;
+        
+        // executions of a job differ, a given seed is offset by the execution
+        if (options.seed != null) {
+            job.seed = options.seed + ejec;
+        }
+        job.text = false;
+        job.manifest = null;
+        job.glob = null;
+        
+        return job;
+    }
+    
+    // megabytes of the distance matrix, the lines of the file bound the number of nodes
+    private int estimate(Options job) {
+        
+        long nodes = 0;
+        if (job.dataConn[0] == null) {
+            try (Stream<String> lines = Files.lines(Paths.get(job.file))) {
+                nodes = lines.count();
+            } catch (IOException e) {
+                
+                // the job reports the problem when it runs
+                nodes = 0;
+            }
+        }
+        long bytes = 8 * nodes * nodes;
+        if (job.neighbours > 0) {
+            bytes += nodes * nodes;
+        }
+        
+        return BASE_MEMORY + (int) (bytes >> 20);
+    }
+    
+    // comma separated integers or a range like 1-10, value if not given
+    private static List<Integer> parseList(String text, int value) {
+        
+        List<Integer> list = new ArrayList<>();
+        if (text == null) {
+            list.add(value);
+            return list;
+        }
+        try {
+            for (String item : text.split(",")) {
+                item = item.trim();
+                int dash = item.indexOf('-', 1);
+                if (dash > 0) {
+                    int from = Integer.parseInt(item.substring(0, dash));
+                    int to = Integer.parseInt(item.substring(dash + 1));
+                    for (int i = from; i <= to; i++) {
+                        list.add(i);
+                    }
+                } else {
+                    list.add(Integer.parseInt(item));
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new AssertionError("List of integers incorrect: " + text + "\n" + e.toString());
+        }
+        
+        return list;
+    }
+}
@@ -1,14 +1,19 @@
 
 package multiarmedhyper;
 
+import java.util.ArrayList;
+import java.util.List;
 import multiarmedhyper.algorithm.AdaptiveImproved;
 import multiarmedhyper.algorithm.AdaptiveLargeNeighborhoodSearch;
 import multiarmedhyper.algorithm.Algorithm;
 import multiarmedhyper.algorithm.ExpoHyper;
 import multiarmedhyper.algorithm.ExpoHyperRecord;
+import multiarmedhyper.algorithm.Islands;
 import multiarmedhyper.algorithm.IterExpo;
 import multiarmedhyper.algorithm.KheiriHyper;
 import multiarmedhyper.algorithm.KheiriHyperAll;
+import multiarmedhyper.algorithm.MultiArmedHyperHeuristic;
+import multiarmedhyper.algorithm.MultiStart;
 import multiarmedhyper.algorithm.TestExpoHyper;
 import multiarmedhyper.algorithm.TestKheiriHyper;
 import multiarmedhyper.algorithm.TestThompsonHyper;
@@ -22,27 +27,8 @@ public class MultiArmedHyper {
 
     public static void main(String[] args) {
         
-        // instance parameters
-        String[] dataConn = new String[3];
-        String instance = "R110_6";
-        String file = "instances/gehring/R110_6.TXT";
-        String matFile = null;
-        
-        // algorithm parameters
-        int type = 0;
-        double limtime = 300.0;
-        int limIter = -1;
-        boolean text = true;
-        boolean typeDouble = false;
-        boolean limTimeNumberOfNodes = false;
-        int ejec = 1;
-        Integer seed = null;
-        
-        // configuation
-        double delta = 0.025;
-        double eta = 2.0;
-        double alpha = -1.0;
-        double beta = -1.0;
+        // options of the run
+        Options options = new Options();
         
         // process arguments
         for (String arg : args) {
@@ -57,43 +43,43 @@ public class MultiArmedHyper {
             }        
             switch (set) {
                 case "--file=": 
-                    file = parameter;
-                    text = true;
+                    options.file = parameter;
+                    options.text = true;
                     break;
                 case "--matrix=": 
-                    matFile = parameter;
-                    text = true;
+                    options.matFile = parameter;
+                    options.text = true;
                     break;
                 case "--instance=": 
-                    instance = parameter;
+                    options.instance = parameter;
                     break;
                 case "--host=": 
-                    dataConn[0] = parameter;
+                    options.dataConn[0] = parameter;
                     break;
                 case "--user=": 
-                    dataConn[1] = parameter;
+                    options.dataConn[1] = parameter;
                     break;
                 case "--pass=": 
-                    dataConn[2] = parameter;
+                    options.dataConn[2] = parameter;
                     break;
                 case "--text": 
-                    text = true;
+                    options.text = true;
                     break;
                 case "--no-text": 
-                    text = false;
+                    options.text = false;
                     break;
                 case "--one-digit": 
-                    typeDouble = false;
+                    options.typeDouble = false;
                     break;
                 case "--doble-pres": 
-                    typeDouble = true;
+                    options.typeDouble = true;
                     break;
                 case "--auto-time": 
-                    limTimeNumberOfNodes = true;
+                    options.limTimeNumberOfNodes = true;
                     break;
                 case "--type=": 
                     try {
-                        type = Integer.parseInt(parameter);
+                        options.type = Integer.parseInt(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Type parameter wrong.\n" 
@@ -102,7 +88,7 @@ public class MultiArmedHyper {
                     break;
                 case "--seed=": 
                     try {
-                        seed = Integer.parseInt(parameter);
+                        options.seed = Integer.parseInt(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Seed integer incorrect.\n" 
@@ -111,7 +97,7 @@ public class MultiArmedHyper {
                     break;
                 case "--ejec=": 
                     try {
-                        ejec = Integer.parseInt(parameter);
+                        options.ejec = Integer.parseInt(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Execution parameter incorrect.\n" 
@@ -120,27 +106,124 @@ public class MultiArmedHyper {
                     break;
                 case "--time=": 
                     try {
-                        limtime = Double.parseDouble(parameter);
+                        options.limtime = Double.parseDouble(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Runing time incorrect.\n" 
                                 + e.toString());
                     }
-                    limTimeNumberOfNodes = false;
+                    options.limTimeNumberOfNodes = false;
                     break;
                 case "--iterations=": 
                     try {
-                        limIter = Integer.parseInt(parameter);
+                        options.limIter = Integer.parseInt(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Iterations limit incorrect.\n" 
                                 + e.toString());
                     }
-                    limTimeNumberOfNodes = false;
+                    options.limTimeNumberOfNodes = false;
+                    break;
+                case "--neighbours=": 
+                    try {
+                        options.neighbours = Integer.parseInt(parameter);
+                    }
+                    catch (NumberFormatException e) {
+                        throw new AssertionError("Neighbours parameter incorrect.\n" 
+                                + e.toString());
+                    }
+                    break;
+                case "--threads=": 
+                    try {
+                        options.threads = Integer.parseInt(parameter);
+                    }
+                    catch (NumberFormatException e) {
+                        throw new AssertionError("Threads parameter incorrect.\n" 
+                                + e.toString());
+                    }
+                    if (options.threads < 1) {
+                        throw new AssertionError("Threads parameter must be positive.");
+                    }
+                    break;
+                case "--migration=": 
+                    try {
+                        options.migration = Integer.parseInt(parameter);
+                    }
+                    catch (NumberFormatException e) {
+                        throw new AssertionError("Migration interval incorrect.\n" 
+                                + e.toString());
+                    }
+                    break;
+                case "--topology=": 
+                    switch (parameter) {
+                        case "ring" -> options.ring = true;
+                        case "all" -> options.ring = false;
+                        default -> throw new AssertionError("Topology must be ring or all.");
+                    }
+                    break;
+                case "--share-stats": 
+                    options.shareStats = true;
+                    break;
+                case "--share-best": 
+                    options.shareBest = true;
+                    break;
+                case "--batch=": 
+                    try {
+                        options.batch = Integer.parseInt(parameter);
+                    }
+                    catch (NumberFormatException e) {
+                        throw new AssertionError("Batch parameter incorrect.\n" 
+                                + e.toString());
+                    }
+                    if (options.batch < 1) {
+                        throw new AssertionError("Batch parameter must be positive.");
+                    }
+                    break;
+                case "--parallel-scan": 
+                    options.parallelScan = true;
+                    break;
+                case "--cost-aware": 
+                    options.costAware = true;
+                    break;
+                case "--manifest=": 
+                    options.manifest = parameter;
+                    break;
+                case "--glob=": 
+                    options.glob = parameter;
+                    break;
+                case "--types=": 
+                    options.types = parameter;
+                    break;
+                case "--ejecs=": 
+                    options.ejecs = parameter;
+                    break;
+                case "--workers=": 
+                    try {
+                        options.workers = Integer.parseInt(parameter);
+                    }
+                    catch (NumberFormatException e) {
+                        throw new AssertionError("Workers parameter incorrect.\n" 
+                                + e.toString());
+                    }
+                    if (options.workers < 1) {
+                        throw new AssertionError("Workers parameter must be positive.");
+                    }
+                    break;
+                case "--csv=": 
+                    options.csv = parameter;
+                    break;
+                case "--memory=": 
+                    try {
+                        options.memory = Integer.parseInt(parameter);
+                    }
+                    catch (NumberFormatException e) {
+                        throw new AssertionError("Memory budget incorrect.\n" 
+                                + e.toString());
+                    }
                     break;
                 case "--delta=": 
                     try {
-                        delta = Double.parseDouble(parameter);
+                        options.delta = Double.parseDouble(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Delta parameter wrong.\n" 
@@ -149,7 +232,7 @@ public class MultiArmedHyper {
                     break;
                 case "--eta=": 
                     try {
-                        eta = Double.parseDouble(parameter);
+                        options.eta = Double.parseDouble(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Eta parameter wrong.\n" 
@@ -158,7 +241,7 @@ public class MultiArmedHyper {
                     break;
                 case "--alpha=": 
                     try {
-                        alpha = Double.parseDouble(parameter);
+                        options.alpha = Double.parseDouble(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Alpha parameter wrong.\n" 
@@ -167,7 +250,7 @@ public class MultiArmedHyper {
                     break;
                 case "--beta=": 
                     try {
-                        beta = Double.parseDouble(parameter);
+                        options.beta = Double.parseDouble(parameter);
                     }
                     catch (NumberFormatException e) {
                         throw new AssertionError("Beta parameter wrong.\n" 
@@ -192,10 +275,26 @@ public class MultiArmedHyper {
                             + "--auto-time\t\t\t Running time is defined according to the number of customers.\n"
                             + "--type=<arg>\t\t\t MAHH algorithm. ExpoHyper[0]; KheiriHyper[1]; KheiriHyperAll[2]; "
                             + "ThompsonHyper[3]; ExpoRecord[4]; ALNS[5]; ANLS+[6]; test algorithms[7-11].\n"
-                            + "--seed=<arg>\t\t\t Long (integer) for random seed.\n"
+                            + "--seed=<arg>\t\t\t Long (integer) for random seed, in batch mode offset by the execution number.\n"
                             + "--ejec=<arg>\t\t\t Integer for algorithm execution number for computational study. \n"
                             + "--time=<arg>\t\t\t Running time limit in seconds. \n"
                             + "--iterations=<arg>\t\t Integer for iterations limit.\n"
+                            + "--neighbours=<arg>\t\t Integer for nearest neighbours per customer in local search moves (all if not given).\n"
+                            + "--threads=<arg>\t\t Integer for independent searches run in parallel with derived seeds, the best one is kept.\n"
+                            + "--migration=<arg>\t\t Integer for sequences between exchanges of best solutions among the threads (island model, off if not given).\n"
+                            + "--topology=<arg>\t\t Islands receiving the best solutions: next island [ring]; all the others [all].\n"
+                            + "--share-stats\t\t\t Islands also share their learned transition and application statistics.\n"
+                            + "--share-best\t\t\t Threads share their best solution and accept solutions relative to the best of all of them.\n"
+                            + "--batch=<arg>\t\t\t Integer for sequences sampled per iteration and applied in parallel by the hyper-heuristics of types 0 to 4.\n"
+                            + "--parallel-scan\t\t\t Inter-route local search evaluates all route pairs in parallel and applies the best non-conflicting moves.\n"
+                            + "--cost-aware\t\t\t Hyper-heuristics credit each success divided by the mean running time of the low-level heuristic.\n"
+                            + "--manifest=<arg>\t\t Batch mode: file with one job per line (file or instance, type, ejec and optional time, comma separated).\n"
+                            + "--glob=<arg>\t\t\t Batch mode: instance files matching the pattern, e.g. instances/solomon/r1*.txt.\n"
+                            + "--types=<arg>\t\t\t Batch mode: algorithm types for the glob, comma separated (type if not given).\n"
+                            + "--ejecs=<arg>\t\t\t Batch mode: executions for the glob, comma separated or a range like 1-10 (ejec if not given).\n"
+                            + "--workers=<arg>\t\t Batch mode: integer for jobs solved at the same time (available processors if not given).\n"
+                            + "--csv=<arg>\t\t\t Batch mode: output file for the results (terminal if not given and no DB).\n"
+                            + "--memory=<arg>\t\t\t Batch mode: integer for megabytes shared by the running jobs (no budget if not given).\n"
                             + "--delta=<arg>\t\t\t Numeric value for delta parameter. This parameter determines the acceptance solution tolerance.\n"
                             + "--eta=<arg>\t\t\t Numeric value for eta parameter for Expo Hyper algorithms (learning rate).\n"
                             + "--alpha=<arg>\t\t\t Numeric value for alpha parameter for Expo Hyper algorithms (minimum transition probability).\n"
@@ -207,83 +306,68 @@ public class MultiArmedHyper {
             }
         }
         
+        // many runs in the same process or a single run
+        if (options.manifest != null || options.glob != null) {
+            new BatchRunner(options).run();
+        } else {
+            solve(options);
+        }
+    }
+    
+    // read the instance, solve it with the algorithm of the options and write the results
+    static Algorithm solve(Options options) {
+        
         // read instance
         ParameterReader param;
-        if (dataConn[0] != null) {
-            param = new BaseReader(instance, dataConn);
+        if (options.dataConn[0] != null) {
+            param = new BaseReader(options.instance, options.dataConn);
         } else {
-            param = new InstanceReader(file);
+            param = new InstanceReader(options.file);
         } 
-        param.setDistanceType(typeDouble);
+        param.setDistanceType(options.typeDouble);
+        param.setNeighbours(options.neighbours);
         param.read();
         
         // distance matrix
-        if (param instanceof InstanceReader && matFile != null) {
-            ((InstanceReader) param).setDistanceMatrix(matFile);
+        if (param instanceof InstanceReader && options.matFile != null) {
+            ((InstanceReader) param).setDistanceMatrix(options.matFile);
         }
         
-        // set algorithm 
+        // set algorithm, one per thread
         Algorithm algorithm;
-        switch (type) {
-            case 0 -> {
-                algorithm = new ExpoHyper(param);
-            }
-            case 1 -> {
-                algorithm = new KheiriHyper(param);
-            }
-            case 2 -> {
-                algorithm = new KheiriHyperAll(param);
-            }
-            case 3 -> {
-                algorithm = new ThompsonHyper(param);
-            }
-            case 4 -> {
-                algorithm = new ExpoHyperRecord(param);
-            }
-            case 5 -> {
-                algorithm = new AdaptiveLargeNeighborhoodSearch(param);
-            }
-            case 6 -> {
-                algorithm = new AdaptiveImproved(param);
-            }
-            case 7 -> {
-                algorithm = new TestExpoHyper(param);
-            }
-            case 8 -> {
-                algorithm = new TestKheiriHyper(param);
-            }
-            case 9 -> {
-                algorithm = new TestThompsonHyper(param);
+        if (options.threads > 1) {
+            List<Algorithm> workers = new ArrayList<>();
+            for (int i = 0; i < options.threads; i++) {
+                workers.add(newAlgorithm(options, param));
             }
-            case 10 -> {
-                algorithm = new IterExpo(param);
-                limIter = 25000;
+            MultiStart multiStart;
+            if (options.migration > 0) {
+                multiStart = new Islands(param, workers, options.migration, 
+                        options.ring, options.shareStats);
+            } else {
+                multiStart = new MultiStart(param, workers);
             }
-            case 11 -> {
-                algorithm = new IterExpo(param);
-                ((IterExpo) algorithm).setName("FastExpo");
-                limIter = 5000;
+            if (options.shareBest) {
+                multiStart.shareIncumbent();
             }
-            default -> algorithm = new ExpoHyper(param);
+            algorithm = multiStart;
+        } else {
+            algorithm = newAlgorithm(options, param);
         }
         
-        // configuration
-        algorithm.setDelta(delta);
-        if (algorithm instanceof ExpoHyper || algorithm instanceof ExpoHyperRecord) {
-            ((ExpoHyper) algorithm).setEta(eta);
-            if (alpha > 0 && alpha < 1) {
-                ((ExpoHyper) algorithm).setAlpha(alpha);
-            }
-            if (beta > 0 && beta < 1) {
-                ((ExpoHyper) algorithm).setBeta(beta);
-            }
+        // fixed iterations
+        int limIter = options.limIter;
+        if (options.type == 10) {
+            limIter = 25000;
+        } else if (options.type == 11) {
+            limIter = 5000;
         }
         
         // max time running
         algorithm.setTimeLimit(10 * 60 * 60);
         
         // auto configuration
-        if (limTimeNumberOfNodes) {
+        if (options.limTimeNumberOfNodes) {
             
             int nodes = param.getNodes().size();
             if (nodes <= 120) {
@@ -311,7 +395,7 @@ public class MultiArmedHyper {
             // irrestricted iterations
             algorithm.setIterLimit(Integer.MAX_VALUE);
         } else {
-            algorithm.setTimeLimit(limtime);
+            algorithm.setTimeLimit(options.limtime);
         }
         
         // limit iterations
@@ -323,21 +407,95 @@ public class MultiArmedHyper {
         }
         
         // set algorithm and solve
-        if (seed == null) {
-            seed = type * 10000 + (int) Math.floor(delta * 1000) 
-                    + (int) Math.floor(eta * 100) + ejec + instance.hashCode();
+        long seed;
+        if (options.seed != null) {
+            seed = options.seed;
+        } else {
+            seed = options.type * 10000 + (int) Math.floor(options.delta * 1000) 
+                    + (int) Math.floor(options.eta * 100) + options.ejec 
+                    + options.instance.hashCode();
         }
         algorithm.setSeed(seed);
-        algorithm.setOutput(text);
+        algorithm.setOutput(options.text);
         algorithm.solve();
         
         // write output in DB
-        if (dataConn[0] != null) {
-            BaseWriter writer = new BaseWriter(dataConn);
-            writer.write(algorithm, ejec);
+        if (options.dataConn[0] != null) {
+            BaseWriter writer = new BaseWriter(options.dataConn);
+            writer.write(algorithm, options.ejec);
         }
         
         // clear parameters
         param.clear();
+        
+        return algorithm;
+    }
+    
+    // new algorithm of the given type and configuration
+    private static Algorithm newAlgorithm(Options options, ParameterReader param) {
+        
+        Algorithm algorithm;
+        switch (options.type) {
+            case 0 -> {
+                algorithm = new ExpoHyper(param);
+            }
+            case 1 -> {
+                algorithm = new KheiriHyper(param);
+            }
+            case 2 -> {
+                algorithm = new KheiriHyperAll(param);
+            }
+            case 3 -> {
+                algorithm = new ThompsonHyper(param);
+            }
+            case 4 -> {
+                algorithm = new ExpoHyperRecord(param);
+            }
+            case 5 -> {
+                algorithm = new AdaptiveLargeNeighborhoodSearch(param);
+            }
+            case 6 -> {
+                algorithm = new AdaptiveImproved(param);
+            }
+            case 7 -> {
+                algorithm = new TestExpoHyper(param);
+            }
+            case 8 -> {
+                algorithm = new TestKheiriHyper(param);
+            }
+            case 9 -> {
+                algorithm = new TestThompsonHyper(param);
+            }
+            case 10 -> {
+                algorithm = new IterExpo(param);
+            }
+            case 11 -> {
+                algorithm = new IterExpo(param);
+                ((IterExpo) algorithm).setName("FastExpo");
+            }
+            default -> algorithm = new ExpoHyper(param);
+        }
+        
+        // configuration
+        algorithm.setDelta(options.delta);
+        if (algorithm instanceof ExpoHyper || algorithm instanceof ExpoHyperRecord) {
+            ((ExpoHyper) algorithm).setEta(options.eta);
+            if (options.alpha > 0 && options.alpha < 1) {
+                ((ExpoHyper) algorithm).setAlpha(options.alpha);
+            }
+            if (options.beta > 0 && options.beta < 1) {
+                ((ExpoHyper) algorithm).setBeta(options.beta);
+            }
+        }
+        if (algorithm instanceof MultiArmedHyperHeuristic) {
+            ((MultiArmedHyperHeuristic) algorithm).setBatch(options.batch);
+            ((MultiArmedHyperHeuristic) algorithm).setParallelScan(options.parallelScan);
+            ((MultiArmedHyperHeuristic) algorithm).setCostAware(options.costAware);
+        }
+        if (algorithm instanceof AdaptiveLargeNeighborhoodSearch) {
+            ((AdaptiveLargeNeighborhoodSearch) algorithm).setParallelScan(options.parallelScan);
+        }
+        
+        return algorithm;
     }
 }
@@ -0,0 +1,82 @@
+package multiarmedhyper;
+
+// command line options of one run, batch jobs get a copy with their own instance, type and execution
+final class Options {
+    
+    // instance parameters
+    String[] dataConn = new String[3];
+    String instance = "R110_6";
+    String file = "instances/gehring/R110_6.TXT";
+    String matFile = null;
+    
+    // algorithm parameters
+    int type = 0;
+    double limtime = 300.0;
+    int limIter = -1;
+    boolean text = true;
+    boolean typeDouble = false;
+    boolean limTimeNumberOfNodes = false;
+    int ejec = 1;
+    Integer seed = null;
+    int neighbours = 0;
+    int threads = 1;
+    int migration = 0;
+    boolean ring = true;
+    boolean shareStats = false;
+    boolean shareBest = false;
+    int batch = 1;
+    boolean parallelScan = false;
+    boolean costAware = false;
+    
+    // configuation
+    double delta = 0.025;
+    double eta = 2.0;
+    double alpha = -1.0;
+    double beta = -1.0;
+    
+    // batch experiments, off when there is neither manifest nor glob
+    String manifest = null;
+    String glob = null;
+    String types = null;
+    String ejecs = null;
+    int workers = Runtime.getRuntime().availableProcessors();
+    String csv = null;
+    int memory = -1;
+    
+    Options() {}
+    
+    Options(Options tmp) {
+        dataConn = tmp.dataConn.clone();
+        instance = tmp.instance;
+        file = tmp.file;
+        matFile = tmp.matFile;
+        type = tmp.type;
+        limtime = tmp.limtime;
+        limIter = tmp.limIter;
+        text = tmp.text;
+        typeDouble = tmp.typeDouble;
+        limTimeNumberOfNodes = tmp.limTimeNumberOfNodes;
+        ejec = tmp.ejec;
+        seed = tmp.seed;
+        neighbours = tmp.neighbours;
+        threads = tmp.threads;
+        migration = tmp.migration;
+        ring = tmp.ring;
+        shareStats = tmp.shareStats;
+        shareBest = tmp.shareBest;
+        batch = tmp.batch;
+        parallelScan = tmp.parallelScan;
+        costAware = tmp.costAware;
+        delta = tmp.delta;
+        eta = tmp.eta;
+        alpha = tmp.alpha;
+        beta = tmp.beta;
+        manifest = tmp.manifest;
+        glob = tmp.glob;
+        types = tmp.types;
+        ejecs = tmp.ejecs;
+        workers = tmp.workers;
+        csv = tmp.csv;
+        memory = tmp.memory;
+    }
+}
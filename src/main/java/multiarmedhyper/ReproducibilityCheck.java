@@ -0,0 +1,112 @@
+package multiarmedhyper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// runs each mode covered by the reproducibility guarantee with one seed on one processor and
+// on several, the best cost and routes must be the same, modes whose result depends on the
+// timing (--share-best, --cost-aware, time limits, cancellation) are not covered
+// usage: ReproducibilityCheck [file=<path>] [seed=<n>] [processors=<n>]
+public final class ReproducibilityCheck {
+    
+    // arguments of the covered modes, all with an iteration limit
+    private static final String[][] MODES = {
+        {"--type=0", "--iterations=150"},
+        {"--type=3", "--iterations=150", "--batch=4"},
+        {"--type=0", "--iterations=100", "--parallel-scan"},
+        {"--type=5", "--iterations=150"},
+        {"--type=1", "--iterations=100", "--threads=3"},
+        {"--type=2", "--iterations=150", "--threads=3", "--migration=10", "--share-stats"},
+        {"--type=9", "--iterations=100", "--threads=3", "--migration=10", "--topology=ring"}
+    };
+    
+    private ReproducibilityCheck() {}
+    
+    public static void main(String[] args) {
+        
+        String file = "instances/solomon/r101.txt";
+        long seed = 1;
+        int processors = 4;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.substring(0, Math.max(equals, 0));
+            String value = arg.substring(equals + 1);
+            try {
+                switch (name) {
+                    case "file" -> file = value;
+                    case "seed" -> seed = Long.parseLong(value);
+                    case "processors" -> processors = Integer.parseInt(value);
+                    default -> throw new AssertionError("Unknown argument " + arg
+                            + ", use file=<path>, seed=<n> or processors=<n>.");
+                }
+            } catch (NumberFormatException e) {
+                throw new AssertionError("Argument incorrect: " + arg + "\n" + e.toString());
+            }
+        }
+        
+        // each mode on one processor and on several
+        int failed = 0;
+        for (String[] mode : MODES) {
+            List<String> arguments = new ArrayList<>(List.of(mode));
+            arguments.add("--file=" + file);
+            arguments.add("--seed=" + seed);
+            List<String> single = result(run(1, arguments));
+            List<String> several = result(run(processors, arguments));
+            boolean same = !single.isEmpty() && single.equals(several);
+            if (!same) {
+                failed++;
+            }
+            System.out.println((same ? "same " : "DIFFERENT ") + String.join(" ", mode)
+                    + (single.isEmpty() ? "" : " | " + single.get(0)));
+        }
+        
+        System.out.println(failed == 0 ? "all modes reproducible"
+                : failed + " of " + MODES.length + " modes differ");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+    
+    // output of the solver in a new JVM that sees the given number of processors
+    private static String run(int processors, List<String> arguments) {
+        
+        List<String> command = new ArrayList<>();
+        command.add(String.join(File.separator, System.getProperty("java.home"), "bin", "java"));
+        command.add("-XX:ActiveProcessorCount=" + processors);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(MultiArmedHyper.class.getName());
+        command.addAll(arguments);
+        
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(),
+                    StandardCharsets.UTF_8);
+            if (process.waitFor() != 0) {
+                throw new AssertionError("Run failed: " + String.join(" ", arguments)
+                        + "\n" + output);
+            }
+            return output;
+        } catch (IOException e) {
+            throw new AssertionError("Run could not start.\n" + e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Check interrupted.\n" + e.toString());
+        }
+    }
+    
+    // best cost and routes of the output, the times are left out
+    private static List<String> result(String output) {
+        
+        List<String> lines = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            line = line.trim();
+            if (line.startsWith("total cost:") || line.startsWith("[")) {
+                lines.add(line);
+            }
+        }
+        
+        return lines;
+    }
+}
@@ -3,7 +3,6 @@ package multiarmedhyper.algorithm;
 
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -11,7 +10,7 @@ import multiarmedhyper.data.ParameterReader;
 
 public class AdaptiveImproved extends AdaptiveLargeNeighborhoodSearch {
     
-    Map<Integer, Double> improvement;
+    DiscreteDistribution improvement;
     int nImprove = 7;
     
     public AdaptiveImproved(ParameterReader param) {
@@ -30,12 +29,10 @@ public class AdaptiveImproved extends AdaptiveLargeNeighborhoodSearch {
                 value = scores.get("R" + i) / totals.get("R" + i);
             }
             double weight = (1 - r) * removal.get(i) + r * value;
-            removal.put(i, weight);
+            removal.set(i, weight);
             total1 += weight;
         }
-        for (int i = 0; i < nRemoval; i++) {
-            removal.put(i, removal.get(i) / total1);
-        }
+        removal.divide(total1);
 
         // insertion 
         Double total2 = 0.0;
@@ -45,12 +42,10 @@ public class AdaptiveImproved extends AdaptiveLargeNeighborhoodSearch {
                 value = scores.get("I" + i) / totals.get("I" + i);
             }
             double weight = (1 - r) * insertion.get(i) + r * value;
-            insertion.put(i, weight);
+            insertion.set(i, weight);
             total2 += weight;
         }
-        for (int i = 0; i < 10; i++) {
-            insertion.put(i, insertion.get(i) / total2);
-        }
+        insertion.divide(total2);
         
         // initial values improvement
         Double total3 = 0.0;
@@ -60,12 +55,10 @@ public class AdaptiveImproved extends AdaptiveLargeNeighborhoodSearch {
                 value = scores.get("P" + i) / totals.get("P" + i);
             }
             double weight = (1 - r) * improvement.get(i) + r * value;
-            improvement.put(i, weight);
+            improvement.set(i, weight);
             total3 += weight;
         }
-        for (int i = 0; i < nImprove; i++) {
-            improvement.put(i, improvement.get(i) / total3);
-        }
+        improvement.divide(total3);
     }
     
     @Override
@@ -114,25 +107,10 @@ public class AdaptiveImproved extends AdaptiveLargeNeighborhoodSearch {
     @Override
     void initWeights() {
         
-        // matrixes 
-        removal = new HashMap<>();
-        insertion = new HashMap<>();
-        improvement = new HashMap<>();
-        
-        // initial values removal
-        for (int i = 0; i < nRemoval; i++) {
-            removal.put(i, 1.0 / nRemoval);
-        }
-        
-        // initial values insertion
-        for (int i = 0; i < nInsertion; i++) {
-            insertion.put(i, 1.0 / nInsertion);
-        }
-        
-        // initial values improvement
-        for (int i = 0; i < nImprove; i++) {
-            improvement.put(i, 1.0 / nImprove);
-        }
+        // initial values
+        removal = new DiscreteDistribution(nRemoval, 1.0 / nRemoval);
+        insertion = new DiscreteDistribution(nInsertion, 1.0 / nInsertion);
+        improvement = new DiscreteDistribution(nImprove, 1.0 / nImprove);
     }
     
     @Override
@@ -143,36 +121,15 @@ public class AdaptiveImproved extends AdaptiveLargeNeighborhoodSearch {
         
         // find removal
         double unif1 = rand.nextDouble();
-        double ac1 = 0;
-        for (int i = 0; i < nRemoval; i++) {
-            ac1 += removal.get(i);
-            if (unif1 < ac1) {
-                indexes[0] = i;
-                break;
-            }
-        }
+        indexes[0] = removal.sample(unif1);
         
         // find insertion
         double unif2 = rand.nextDouble();
-        double ac2 = 0;
-        for (int i = 0; i < nInsertion; i++) {
-            ac2 += insertion.get(i);
-            if (unif2 < ac2) {
-                indexes[1] = i;
-                break;
-            }
-        }
+        indexes[1] = insertion.sample(unif2);
         
         // find improvement
         double unif3 = rand.nextDouble();
-        double ac3 = 0;
-        for (int i = 0; i < nImprove; i++) {
-            ac3 += improvement.get(i);
-            if (unif3 < ac3) {
-                indexes[2] = i;
-                break;
-            }
-        }
+        indexes[2] = improvement.sample(unif3);
            
         // remove nodes
         Set<Integer> nodes = new HashSet<>();
@@ -9,8 +9,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
 import multiarmedhyper.data.ParameterReader;
 
 public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
@@ -34,24 +35,39 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
     double time;
     String output = "";
     int app;
-    Random rand;
+    SplittableRandom rand;
     
     // matrixes and utils
-    Map<Integer, Double> removal;
-    Map<Integer, Double> insertion;
+    DiscreteDistribution removal;
+    DiscreteDistribution insertion;
     Double[] sigma = new Double[] {33.0, 9.0, 13.0};
     List<Integer> hashValues;
     double r = 0.1;
     
+    // route pairs of the inter-route operators evaluated in parallel
+    boolean parallelScan;
+    
+    // cooperative limit checked at each step, null when there is none
+    Budget budget;
+    
+    // receives the new best solutions and may cancel the search, null when there is none
+    SolveHandle handle;
+    
+    // best of all the searches when they share it, null when the search runs alone
+    SharedIncumbent shared;
+    
+    // snapshot of the best solution for readers on other threads
+    volatile Incumbent incumbent;
+    
     public AdaptiveLargeNeighborhoodSearch(ParameterReader param) {
         this.param = param;
         status = false;
-        rand = new Random();
+        rand = new SplittableRandom();
     }
     
     @Override
     public void setSeed(long seed) {
-        rand.setSeed(seed);
+        rand = new SplittableRandom(seed);
     }
     
     @Override
@@ -72,12 +88,58 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
     @Override
     public void setDelta(double delta) { }
     
+    public void setParallelScan(boolean parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+    
+    @Override
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+    
+    @Override
+    public void setHandle(SolveHandle handle) {
+        this.handle = handle;
+    }
+    
+    @Override
+    public SolveHandle solveAsync(Consumer<Incumbent> listener) {
+        return SolveHandle.start(this, listener);
+    }
+    
+    // false when the search is cancelled or the budget stops it
+    boolean proceed() {
+        return (handle == null || !handle.isCancelled()) && (budget == null || budget.proceed());
+    }
+    
+    // seconds since the start, the running time of the search when it has a budget
+    double elapsed(long starting) {
+        return budget == null ? (System.currentTimeMillis() - starting) / 1E3 : budget.elapsed();
+    }
+    
+    void setShared(SharedIncumbent shared) {
+        this.shared = shared;
+    }
+    
+    // snapshot of the best solution for the readers, the handle and the other searches
+    void publish(int iteration) {
+        
+        incumbent = new Incumbent(best, time, iteration);
+        if (handle != null) {
+            handle.publish(incumbent);
+        }
+        if (shared != null) {
+            shared.offer(incumbent);
+        }
+    }
+    
     @Override
     public void solve() {
         
         // best solution
         best = new Solution(param);
         best.setRandom(rand);
+        best.setParallelScan(parallelScan);
         
         // print basic info
         print(param.info() + "\n\n");
@@ -88,6 +150,7 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
         // start with saving method
         best.savingsMethod();
         bestValue = best.getTotalCost();
+        publish(0);
         Solution current = new Solution(best);
         double currentCost = current.getTotalCost();
         double tempe = -bestValue * 0.05 / 100 / Math.log(0.5);
@@ -112,7 +175,7 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
         app = 0;
         
         // iterate while time < limit
-        while (time < timeLimit && app < iterLimit) {
+        while (time < timeLimit && app < iterLimit && proceed()) {
             
             // a sequence is applied
             app++;
@@ -124,10 +187,14 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
             Integer code = tmp.hashValue();
             int type = -1;
 
+            // time of the iteration, before the snapshot of a new best solution
+            time = elapsed(starting);
+            
             // check if new best solution is found
             if (tmpCost < bestValue) {
                 best = new Solution(tmp);
                 bestValue = tmpCost;
+                publish(app);
                 current = new Solution(tmp);
                 currentCost = current.getTotalCost();
                 type = 0;
@@ -158,7 +225,6 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
             }
             updateScores(indexes, type, totals, scores);
             
-            time = (System.currentTimeMillis() - starting) / 1E3;
             print(toTable(Double.toString(time), 12) + "|" 
                     + toTable(Integer.toString(app), 10) 
                     + "|" + toTable(Double.toString(Math.round(bestValue * 1E2) / 1E2), 18) 
@@ -196,12 +262,10 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
                 value = scores.get("R" + i) / totals.get("R" + i);
             }
             double weight = (1 - r) * removal.get(i) + r * value;
-            removal.put(i, weight);
+            removal.set(i, weight);
             total1 += weight;
         }
-        for (int i = 0; i < nRemoval; i++) {
-            removal.put(i, removal.get(i) / total1);
-        }
+        removal.divide(total1);
 
         // insertion 
         Double total2 = 0.0;
@@ -211,12 +275,10 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
                 value = scores.get("I" + i) / totals.get("I" + i);
             }
             double weight = (1 - r) * insertion.get(i) + r * value;
-            insertion.put(i, weight);
+            insertion.set(i, weight);
             total2 += weight;
         }
-        for (int i = 0; i < 10; i++) {
-            insertion.put(i, insertion.get(i) / total2);
-        }
+        insertion.divide(total2);
     }
     
     void updateScores(Integer[] indexes, int type,
@@ -255,19 +317,9 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
     
     void initWeights() {
         
-        // matrixes 
-        removal = new HashMap<>();
-        insertion = new HashMap<>();
-        
-        // initial values removal
-        for (int i = 0; i < nRemoval; i++) {
-            removal.put(i, 1.0 / nRemoval);
-        }
-        
-        // initial values insertion
-        for (int i = 0; i < nInsertion; i++) {
-            insertion.put(i, 1.0 / nInsertion);
-        }
+        // initial values
+        removal = new DiscreteDistribution(nRemoval, 1.0 / nRemoval);
+        insertion = new DiscreteDistribution(nInsertion, 1.0 / nInsertion);
     }
     
     Integer[] applyHeuristics(Solution current) {
@@ -277,25 +329,11 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
         
         // find removal
         double unif1 = rand.nextDouble();
-        double ac1 = 0;
-        for (int i = 0; i < nRemoval; i++) {
-            ac1 += removal.get(i);
-            if (unif1 < ac1) {
-                indexes[0] = i;
-                break;
-            }
-        }
+        indexes[0] = removal.sample(unif1);
         
         // find insertion
         double unif2 = rand.nextDouble();
-        double ac2 = 0;
-        for (int i = 0; i < nInsertion; i++) {
-            ac2 += insertion.get(i);
-            if (unif2 < ac2) {
-                indexes[1] = i;
-                break;
-            }
-        }
+        indexes[1] = insertion.sample(unif2);
            
         // remove nodes
         Set<Integer> nodes = new HashSet<>();
@@ -401,7 +439,7 @@ public class AdaptiveLargeNeighborhoodSearch implements Algorithm {
     
     @Override
     public List<List<Integer>> getBestRoutes() {
-        return new ArrayList<>(best.getRoutes());
+        return new ArrayList<>(incumbent.getRoutes());
     }
     
     @Override
@@ -4,6 +4,7 @@ package multiarmedhyper.algorithm;
 import com.google.common.collect.Table;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import multiarmedhyper.data.ParameterReader;
 
 public interface Algorithm {
@@ -24,6 +25,12 @@ public interface Algorithm {
     
     public void setDelta(double delta);
     
+    public void setBudget(Budget budget);
+    
+    public void setHandle(SolveHandle handle);
+    
+    public SolveHandle solveAsync(Consumer<Incumbent> listener);
+    
     public double getRunTime();
     
     public int getIterations();
@@ -0,0 +1,11 @@
+package multiarmedhyper.algorithm;
+
+// cooperative limit of a search, the loop asks before each step and stops when it
+// gets false, the call may block while the search waits for its turn
+public interface Budget {
+    
+    public boolean proceed();
+    
+    // seconds of running time used so far
+    public double elapsed();
+}
@@ -0,0 +1,112 @@
+package multiarmedhyper.algorithm;
+
+// weights of the values 0..k-1 kept in a Fenwick tree, a weight is updated and a value is
+// sampled in O(log k) without boxing, shared by the roulette selections of the searches
+final class DiscreteDistribution {
+    
+    private final int size;
+    private final double[] weights;
+    
+    // partial sums, 1-based
+    private final double[] tree;
+    private final int top;
+    private double total;
+    
+    DiscreteDistribution(int size, double weight) {
+        
+        if (size < 1) {
+            throw new AssertionError("Distribution needs at least one value.");
+        }
+        
+        this.size = size;
+        weights = new double[size];
+        tree = new double[size + 1];
+        top = Integer.highestOneBit(size);
+        for (int i = 0; i < size; i++) {
+            add(i, weight);
+        }
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    double get(int i) {
+        return weights[i];
+    }
+    
+    double total() {
+        return total;
+    }
+    
+    double probability(int i) {
+        return weights[i] / total;
+    }
+    
+    // the weight is stored exactly, the partial sums and the total follow by the difference
+    void set(int i, double weight) {
+        double delta = weight - weights[i];
+        weights[i] = weight;
+        update(i, delta);
+    }
+    
+    void add(int i, double delta) {
+        weights[i] += delta;
+        update(i, delta);
+    }
+    
+    private void update(int i, double delta) {
+        
+        total += delta;
+        for (int k = i + 1; k <= size; k += k & -k) {
+            tree[k] += delta;
+        }
+    }
+    
+    // all the weights at once, the partial sums and the total are rebuilt from them in O(k)
+    // so the rounding errors of the single updates do not pile up
+    void assign(double[] values) {
+        System.arraycopy(values, 0, weights, 0, size);
+        rebuild();
+    }
+    
+    // weights divided by the divisor, e.g. their sum to normalize them
+    void divide(double divisor) {
+        
+        for (int i = 0; i < size; i++) {
+            weights[i] = weights[i] / divisor;
+        }
+        rebuild();
+    }
+    
+    private void rebuild() {
+        
+        total = 0.0;
+        for (int k = 1; k <= size; k++) {
+            tree[k] = weights[k - 1];
+            total += weights[k - 1];
+        }
+        for (int k = 1; k <= size; k++) {
+            int parent = k + (k & -k);
+            if (parent <= size) {
+                tree[parent] += tree[k];
+            }
+        }
+    }
+    
+    // first value whose cumulative weight over the total exceeds unif, the last one if none
+    int sample(double unif) {
+        
+        int pos = 0;
+        double sum = 0.0;
+        for (int step = top; step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= size && (sum + tree[next]) / total <= unif) {
+                pos = next;
+                sum += tree[next];
+            }
+        }
+        
+        return Math.min(pos, size - 1);
+    }
+}
@@ -3,7 +3,7 @@ package multiarmedhyper.algorithm;
 
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,8 +12,18 @@ import multiarmedhyper.data.ParameterReader;
 public class ExpoHyper extends MultiArmedHyperHeuristic {
     
     // matrixes
-    Table<Integer, Integer, Double> mP;
-    Table<Integer, Integer, Double> mQ;
+    double[][] mP;
+    double[][] mQ;
+    
+    // probabilities and application probabilities of each row, recomputed only when the
+    // weights of the row change
+    DiscreteDistribution[] prob;
+    double[] accept;
+    boolean[] staleProb;
+    boolean[] staleAccept;
+    
+    // values of the row being recomputed
+    double[] weights;
     
     // learning rate
     double eta = 0.5;
@@ -49,22 +59,8 @@ public class ExpoHyper extends MultiArmedHyperHeuristic {
     @Override
     int nextLowLevel(int last) {
         
-        // find value
-        double unif = rand.nextDouble();
-        Map<Integer, Double> prob = getProbability(last);
-        Double acum = 0.0;
-        int next = -1; 
-        for (Integer val : prob.keySet()) {
-            acum += prob.get(val);
-            
-            // check unif
-            if (acum > unif) {
-                return val;
-            }
-            next = val;
-        }
-        
-        return next;
+        // first value whose cumulative probability exceeds unif, the last one otherwise
+        return getProbability(last).sample(rand.nextDouble());
     }
     
     @Override
@@ -80,22 +76,21 @@ public class ExpoHyper extends MultiArmedHyperHeuristic {
     @Override
     void algorithmStart() {
         
-        // matrixes 
-        mP = HashBasedTable.create();
-        mQ = HashBasedTable.create();
+        // matrixes, all weights start at zero
+        mP = new double[nLowLevel][nLowLevel];
+        mQ = new double[nLowLevel][2];
         
-        // initial values
+        // cached rows
+        prob = new DiscreteDistribution[nLowLevel];
         for (int i = 0; i < nLowLevel; i++) {
-            
-            // application matrix
-            mQ.put(i, 0, 0.0);
-            mQ.put(i, 1, 0.0);
-            
-            // creation matrix
-            for (int j = 0; j < nLowLevel; j++) {
-                mP.put(i, j, 0.0);
-            }
+            prob[i] = new DiscreteDistribution(nLowLevel, 1.0 / nLowLevel);
         }
+        weights = new double[nLowLevel];
+        accept = new double[nLowLevel];
+        staleProb = new boolean[nLowLevel];
+        staleAccept = new boolean[nLowLevel];
+        Arrays.fill(staleProb, true);
+        Arrays.fill(staleAccept, true);
     }
     
     @Override
@@ -107,76 +102,115 @@ public class ExpoHyper extends MultiArmedHyperHeuristic {
             int index1 = sequence.get(i - 1);
             int index2 = sequence.get(i);
             double value = getProbability(index1).get(index2);
-            mP.put(index1, index2, 
-                    mP.get(index1, index2) - 1.0 / value);
-            mQ.put(index1, 0, mQ.get(index1, 0) - 1.0 / (1.0 - getAccept(index1)));
+            mP[index1][index2] -= credit(index2) / value;
+            mQ[index1][0] -= 1.0 / (1.0 - getAccept(index1));
+            staleProb[index1] = true;
+            staleAccept[index1] = true;
         }
         int index = sequence.get(sequence.size() - 1);
-        mQ.put(index, 1, mQ.get(index, 1) - 1.0 / getAccept(index));
+        mQ[index][1] -= 1.0 / getAccept(index);
+        staleAccept[index] = true;
     }
     
-    Map<Integer, Double> getProbability(int index) {
+    // row i holds the creation weights of i followed by its two application weights
+    @Override
+    double[][] statistics() {
+        
+        double[][] statistics = new double[nLowLevel][nLowLevel + 2];
+        for (int i = 0; i < nLowLevel; i++) {
+            System.arraycopy(mP[i], 0, statistics[i], 0, nLowLevel);
+            statistics[i][nLowLevel] = mQ[i][0];
+            statistics[i][nLowLevel + 1] = mQ[i][1];
+        }
+        
+        return statistics;
+    }
+    
+    // average of both weights
+    @Override
+    void adoptStatistics(double[][] statistics) {
+        
+        for (int i = 0; i < nLowLevel; i++) {
+            for (int j = 0; j < nLowLevel; j++) {
+                mP[i][j] = (mP[i][j] + statistics[i][j]) / 2;
+            }
+            mQ[i][0] = (mQ[i][0] + statistics[i][nLowLevel]) / 2;
+            mQ[i][1] = (mQ[i][1] + statistics[i][nLowLevel + 1]) / 2;
+        }
+        Arrays.fill(staleProb, true);
+        Arrays.fill(staleAccept, true);
+    }
+    
+    // probabilities of the row, the distribution is cached and must not be modified
+    DiscreteDistribution getProbability(int index) {
+        
+        if (staleProb[index]) {
+            updateProbability(index);
+        }
+        
+        return prob[index];
+    }
+    
+    void updateProbability(int index) {
         
         // compute all probabilities
-        Map<Integer, Double> map = new HashMap<>();
-        Double total = 0.0;
+        double total = 0.0;
         for (int i = 0; i < nLowLevel; i++) {
-            Double value = Math.exp(-1.0 * eta * mP.get(index, i));
+            double value = Math.exp(-1.0 * eta * mP[index][i]);
             
             // check math limits
-            value = (value > Double.MAX_VALUE / nLowLevel) 
+            weights[i] = (value > Double.MAX_VALUE / nLowLevel) 
                     ? Double.MAX_VALUE / nLowLevel : value; 
-            map.put(i, value);
-            total += value;
+            total += weights[i];
         }
         
         // check values 
-        List<Integer> below = new ArrayList<>();
+        int below = 0;
         double div = total;
         for (int i = 0; i < nLowLevel; i++) {
-            Double value = map.get(i);
             
             // check limit
-            if (map.get(i) / div < alpha) {
-                total = total - value;
-                below.add(i);
+            if (weights[i] / div < alpha) {
+                total = total - weights[i];
+                below++;
             }
         }
         
-        // divide by total 
-        Double cor = (1 - alpha * below.size());
+        // divide by total, values below the limit get alpha
+        double cor = (1 - alpha * below);
         for (int i = 0; i < nLowLevel; i++) {
-            if (below.contains(i)) {
-                map.put(i, alpha);
-            } else {
-                map.put(i, map.get(i) / total * cor);
-            }
-            
+            weights[i] = (weights[i] / div < alpha) ? alpha : weights[i] / total * cor;
         }
-        
-        return map;
+        prob[index].assign(weights);
+        staleProb[index] = false;
     }
     
-    Double getAccept(int index) {
+    double getAccept(int index) {
+        
+        if (!staleAccept[index]) {
+            return accept[index];
+        }
         
-        Double value1 = Math.exp(-1.0 * eta * mQ.get(index, 0));
+        double value1 = Math.exp(-1.0 * eta * mQ[index][0]);
         value1 = (value1 > Double.MAX_VALUE / nLowLevel) 
                     ? Double.MAX_VALUE / nLowLevel : value1;
-        Double value2 = Math.exp(-1.0 * eta * mQ.get(index, 1));
+        double value2 = Math.exp(-1.0 * eta * mQ[index][1]);
         value2 = (value2 > Double.MAX_VALUE / nLowLevel) 
                     ? Double.MAX_VALUE / nLowLevel : value2;
-        Double total = value1 + value2;
-        Double prob = value2 / total;
+        double total = value1 + value2;
+        double probability = value2 / total;
         
         // check limits
-        if (prob < beta) {
-            return beta;
+        if (probability < beta) {
+            probability = beta;
         }
-        if (prob > 1 - beta) {
-            return 1 - beta;
+        if (probability > 1 - beta) {
+            probability = 1 - beta;
         }
+        accept[index] = probability;
+        staleAccept[index] = false;
         
-        return prob;
+        return probability;
     }
     
     @Override
@@ -184,9 +218,9 @@ public class ExpoHyper extends MultiArmedHyperHeuristic {
         Table<Integer, Integer, Double> matrix = HashBasedTable.create();
         
         for (int i = 0; i < nLowLevel; i++) {
-            Map<Integer, Double> map = getProbability(i);
-            for (Integer j : map.keySet()) {
-                matrix.put(i, j, map.get(j));
+            DiscreteDistribution row = getProbability(i);
+            for (int j = 0; j < nLowLevel; j++) {
+                matrix.put(i, j, row.get(j));
             }
         }
         
@@ -20,6 +20,6 @@ public class ExpoHyperRecord extends ExpoHyper {
     
     @Override
     boolean acceptSolution(double tmpCost) {
-        return (tmpCost <  (1 + delta) * bestValue);
+        return (tmpCost <  (1 + delta) * reference());
     }
 }
@@ -0,0 +1,58 @@
+package multiarmedhyper.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// immutable snapshot of a best solution, safe to read from any thread
+public final class Incumbent {
+    
+    private final double cost;
+    private final boolean feasible;
+    private final List<List<Integer>> routes;
+    private final double elapsed;
+    private final int iteration;
+    
+    Incumbent(Solution solution, double elapsed, int iteration) {
+        
+        // copy of the non-empty routes
+        List<List<Integer>> tmp = new ArrayList<>();
+        for (List<Integer> route : solution.getRoutes()) {
+            tmp.add(List.copyOf(route));
+        }
+        
+        cost = solution.getTotalCost();
+        feasible = solution.isFeasible();
+        routes = Collections.unmodifiableList(tmp);
+        this.elapsed = elapsed;
+        this.iteration = iteration;
+    }
+    
+    // feasible solutions first, then the cheapest
+    boolean isBetter(Incumbent other) {
+        return other == null || (feasible && !other.feasible)
+                || (feasible == other.feasible && cost < other.cost);
+    }
+    
+    public double getCost() {
+        return cost;
+    }
+    
+    public boolean isFeasible() {
+        return feasible;
+    }
+    
+    public List<List<Integer>> getRoutes() {
+        return routes;
+    }
+    
+    // seconds since the search started
+    public double getElapsed() {
+        return elapsed;
+    }
+    
+    // sequences applied when the solution was found
+    public int getIteration() {
+        return iteration;
+    }
+}
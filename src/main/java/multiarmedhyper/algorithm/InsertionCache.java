@@ -0,0 +1,208 @@
+package multiarmedhyper.algorithm;
+
+import java.util.Arrays;
+import java.util.Set;
+
+// best insertion cost and position of each node in each route, used by the insertion heuristics
+final class InsertionCache {
+    
+    // slot of each node id, -1 if it is not cached
+    private final int[] slotOf;
+    private final int[] nodes;
+    private final int maxRoutes;
+    
+    // values per slot and route
+    private final double[] cost;
+    private final int[] location;
+    
+    // entries and rows are visited in the order they were added, 0 if absent
+    private final long[] order;
+    private final long[] rowOrder;
+    private final int[] rowSize;
+    private long stamp;
+    
+    // buffer for the costs of one node
+    private final double[] values;
+    
+    // result of the last regret computation
+    double bestCost;
+    int bestRoute;
+    
+    InsertionCache(Set<Integer> list, int size, int maxRoutes) {
+        
+        // slots in the order of the list
+        slotOf = new int[size];
+        Arrays.fill(slotOf, -1);
+        nodes = new int[list.size()];
+        int slot = 0;
+        for (int node : list) {
+            slotOf[node] = slot;
+            nodes[slot++] = node;
+        }
+        this.maxRoutes = maxRoutes;
+        
+        // tables
+        cost = new double[nodes.length * maxRoutes];
+        location = new int[nodes.length * maxRoutes];
+        order = new long[nodes.length * maxRoutes];
+        rowOrder = new long[nodes.length];
+        rowSize = new int[nodes.length];
+        values = new double[maxRoutes];
+    }
+    
+    boolean contains(int node, int route) {
+        return order[slotOf[node] * maxRoutes + route] != 0;
+    }
+    
+    double cost(int node, int route) {
+        return cost[slotOf[node] * maxRoutes + route];
+    }
+    
+    int location(int node, int route) {
+        return location[slotOf[node] * maxRoutes + route];
+    }
+    
+    // set the cost of node in route, keeping its order if already present
+    void put(int node, int route, double value) {
+        
+        int slot = slotOf[node];
+        int key = slot * maxRoutes + route;
+        if (order[key] == 0) {
+            order[key] = ++stamp;
+            if (rowSize[slot]++ == 0) {
+                rowOrder[slot] = stamp;
+            }
+        }
+        cost[key] = value;
+    }
+    
+    void put(int node, int route, double value, int pos) {
+        put(node, route, value);
+        location[slotOf[node] * maxRoutes + route] = pos;
+    }
+    
+    void remove(int node, int route) {
+        
+        int slot = slotOf[node];
+        int key = slot * maxRoutes + route;
+        if (order[key] != 0) {
+            order[key] = 0;
+            if (--rowSize[slot] == 0) {
+                rowOrder[slot] = 0;
+            }
+        }
+    }
+    
+    // remove all the values of node
+    void removeRow(int node) {
+        
+        if (node < 0 || slotOf[node] < 0) {
+            return;
+        }
+        int slot = slotOf[node];
+        Arrays.fill(order, slot * maxRoutes, (slot + 1) * maxRoutes, 0);
+        rowSize[slot] = 0;
+        rowOrder[slot] = 0;
+    }
+    
+    // remove the values of route below limit, the route has to be checked again
+    void removeBelow(int route, double limit) {
+        
+        for (int slot = 0; slot < nodes.length; slot++) {
+            int key = slot * maxRoutes + route;
+            if (order[key] != 0 && cost[key] < limit) {
+                remove(nodes[slot], route);
+            }
+        }
+    }
+    
+    // route with the lowest cost for node, the first added in case of ties, -1 if none
+    int cheapest(int node) {
+        
+        int slot = slotOf[node];
+        int best = -1;
+        for (int route = 0; route < maxRoutes; route++) {
+            int key = slot * maxRoutes + route;
+            if (order[key] == 0) {
+                continue;
+            }
+            if (best < 0 || cost[key] < cost[slot * maxRoutes + best]
+                    || (cost[key] == cost[slot * maxRoutes + best]
+                    && order[key] < order[slot * maxRoutes + best])) {
+                best = route;
+            }
+        }
+        
+        return best;
+    }
+    
+    // nodes with at least one value, in the order their values were added
+    int[] rows() {
+        
+        long[] keys = new long[nodes.length];
+        int total = 0;
+        for (int slot = 0; slot < nodes.length; slot++) {
+            if (rowSize[slot] > 0) {
+                keys[total++] = (rowOrder[slot] << 32) | slot;
+            }
+        }
+        Arrays.sort(keys, 0, total);
+        
+        int[] rows = new int[total];
+        for (int i = 0; i < total; i++) {
+            rows[i] = nodes[(int) keys[i]];
+        }
+        
+        return rows;
+    }
+    
+    // sum of the differences between the len lowest costs of node and the lowest one,
+    // the lowest cost and its route, the first one in case of ties, are kept
+    double regret(int node, int len) {
+        
+        // costs of the node
+        int slot = slotOf[node];
+        int count = 0;
+        bestCost = Double.MAX_VALUE;
+        bestRoute = -1;
+        for (int route = 0; route < maxRoutes; route++) {
+            int key = slot * maxRoutes + route;
+            if (order[key] == 0) {
+                continue;
+            }
+            values[count++] = cost[key];
+            if (cost[key] < bestCost) {
+                bestCost = cost[key];
+                bestRoute = route;
+            }
+        }
+        
+        // keep the lowest ones sorted
+        int total = Math.min(len, count);
+        if (total == count) {
+            Arrays.sort(values, 0, count);
+        } else {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                double value = values[i];
+                if (kept == total && value >= values[kept - 1]) {
+                    continue;
+                }
+                int j = (kept < total) ? kept++ : kept - 1;
+                while (j > 0 && values[j - 1] > value) {
+                    values[j] = values[j - 1];
+                    j--;
+                }
+                values[j] = value;
+            }
+        }
+        
+        // compute regret
+        double regret = 0;
+        for (int i = 1; i < total; i++) {
+            regret += values[i] - values[0];
+        }
+        
+        return regret;
+    }
+}
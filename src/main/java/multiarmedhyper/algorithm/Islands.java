@@ -0,0 +1,38 @@
+package multiarmedhyper.algorithm;
+
+import java.util.List;
+import multiarmedhyper.data.ParameterReader;
+
+// parallel hyper-heuristics that periodically send their best solution, and optionally
+// their learned statistics, to the other islands and adopt better incumbents, all the
+// islands exchange at the same intervals so a seeded run with an iteration limit is
+// reproducible, with a time limit the islands stop at different intervals and it is not
+public class Islands extends MultiStart {
+    
+    final Migration migration;
+    
+    public Islands(ParameterReader param, List<Algorithm> workers, int interval,
+            boolean ring, boolean shareStatistics) {
+        super(param, workers);
+        
+        // connect the islands
+        migration = new Migration(workers.size(), interval, ring, shareStatistics);
+        for (int i = 0; i < workers.size(); i++) {
+            if (!(workers.get(i) instanceof MultiArmedHyperHeuristic)) {
+                throw new AssertionError("Island model needs multi-armed hyper-heuristics.");
+            }
+            ((MultiArmedHyperHeuristic) workers.get(i)).setMigration(migration, i);
+        }
+    }
+    
+    // the other islands no longer wait for a stopped one
+    @Override
+    void finished(int worker) {
+        migration.leave(worker);
+    }
+    
+    @Override
+    public String algorithmName() {
+        return workers.get(0).algorithmName() + "i" + workers.size();
+    }
+}
@@ -3,7 +3,6 @@ package multiarmedhyper.algorithm;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 import multiarmedhyper.data.ParameterReader;
 
 public class IterExpo extends ExpoHyper {
@@ -22,12 +21,21 @@ public class IterExpo extends ExpoHyper {
         this.name = name;
     }
     
+    // the sequences are applied one at a time
+    @Override
+    public void setBatch(int batch) {
+        if (batch > 1) {
+            throw new AssertionError("IterExpo cannot apply batches of sequences.");
+        }
+    }
+    
     @Override
     public void solve() {
         
         // best solution
         best = new Solution(param);
         best.setRandom(rand);
+        best.setParallelScan(parallelScan);
         nLowLevel = best.nLowLevel();
         
         // print basic info
@@ -40,11 +48,13 @@ public class IterExpo extends ExpoHyper {
         // start with out-and-back routes
         best.savingsMethod();
         bestValue = best.getTotalCost();
+        publish(0);
         Solution current = new Solution(best);
         double currentCost = current.getTotalCost();
         
         // matrixes 
         algorithmStart();
+        startTimes();
         
         // empty list and initial llh
         List<Integer> sequence = new ArrayList<>();
@@ -62,7 +72,7 @@ public class IterExpo extends ExpoHyper {
         app = 0;
         
         // iterate while time < limit
-        while (app < iterLimit) {
+        while (app < iterLimit && proceed()) {
             
             // append next low level heuristic
             int next = nextLowLevel(last);
@@ -91,16 +101,19 @@ public class IterExpo extends ExpoHyper {
                     currentCost = current.getTotalCost();
                 }
                 
+                // time of the sequence, before the snapshot of a new best solution
+                time = elapsed(starting);
+                
                 // check if new best solution is found
                 if (tmpCost < bestValue) {
                     best = new Solution(tmp);
                     bestValue = tmpCost;
+                    publish(app);
                     
                     // update success parameters
                     updateSuccess(sequence);
                 }
                 
-                time = (System.currentTimeMillis() - starting) / 1E3;
                 print(toTable(Double.toString(time), 12) + "|" 
                         + toTable(Integer.toString(app), 10) 
                         + "|" + toTable(Double.toString(Math.round(bestValue * 1E2) / 1E2), 18) 
@@ -108,16 +121,25 @@ public class IterExpo extends ExpoHyper {
                         + "|" + toTable(Double.toString(Math.round(tmpCost * 1E2) / 1E2), 18) 
                         + "|" + toTable(sequence.toString(), 20) + "\n");
                 
+                // exchange best solutions with the other islands
+                if (migration != null && app % migration.interval == 0) {
+                    Solution migrant = migrate();
+                    if (migrant != null) {
+                        current = migrant;
+                        currentCost = current.getTotalCost();
+                    }
+                }
+                
                 // new list
                 sequence = new ArrayList<>();
-                next = (new Random()).nextInt(nLowLevel);
+                next = rand.nextInt(nLowLevel);
             }
             
             // update last 
             last = next;
             
             // update time
-            time = (System.currentTimeMillis() - starting) / 1E3;
+            time = elapsed(starting);
         }
         
         status = best.isFeasible();
@@ -131,7 +153,7 @@ public class IterExpo extends ExpoHyper {
     boolean acceptSolution(double tmpCost) {
         double rho = !best.isFeasible() ? 1E-3 
                 : 1E-5 + delta * (1.0 - app * 1.0 / iterLimit);
-        return (tmpCost <  (1 + rho) * bestValue);
+        return (tmpCost <  (1 + rho) * reference());
     }
     
     @Override
@@ -10,9 +10,9 @@ import multiarmedhyper.data.ParameterReader;
 
 public class KheiriHyper extends MultiArmedHyperHeuristic {
     
-    // matrixes
-    Table<Integer, Integer, Integer> mP;
-    Table<Integer, Integer, Integer> mQ;
+    // counts of each row, creation of sequences and application
+    DiscreteDistribution[] mP;
+    DiscreteDistribution[] mQ;
     
     public KheiriHyper(ParameterReader param) {
         super(param);
@@ -28,32 +28,23 @@ public class KheiriHyper extends MultiArmedHyperHeuristic {
     
     @Override
     int nextLowLevel(int last) {
-        return sampleValue(last, mP);
+        return mP[last].sample(rand.nextDouble());
     }
     
     @Override
     int apply(int next) {
-        return sampleValue(next, mQ);
+        return mQ[next].sample(rand.nextDouble());
     }
     
     @Override
     void algorithmStart() {
         
-        // matrixes 
-        mP = HashBasedTable.create();
-        mQ = HashBasedTable.create();
-        
-        // initial values
+        // matrixes, all counts start at one
+        mP = new DiscreteDistribution[nLowLevel];
+        mQ = new DiscreteDistribution[nLowLevel];
         for (int i = 0; i < nLowLevel; i++) {
-            
-            // application matrix
-            mQ.put(i, 0, 1);
-            mQ.put(i, 1, 1);
-            
-            // creation matrix
-            for (int j = 0; j < nLowLevel; j++) {
-                mP.put(i, j, 1);
-            }
+            mP[i] = new DiscreteDistribution(nLowLevel, 1);
+            mQ[i] = new DiscreteDistribution(2, 1);
         }
     }
     
@@ -68,37 +59,42 @@ public class KheiriHyper extends MultiArmedHyperHeuristic {
 
             int index1 = sequence.get(i - 1);
             int index2 = sequence.get(i);
-            mP.put(index1, index2, mP.get(index1, index2) + 1);
-            mQ.put(index1, 0, mQ.get(index1, 0) + 1);
+            mP[index1].add(index2, credit(index2));
+            mQ[index1].add(0, 1);
         }
         int index = sequence.get(sequence.size() - 1);
-        mQ.put(index, 1, mQ.get(index, 1) + 1);
+        mQ[index].add(1, 1);
     }
     
-    private int sampleValue(int last, Table<Integer, Integer, Integer> matrix) {
-        
-        // sample uniform
-        double unif = rand.nextDouble();
-        Map<Integer, Integer> values = matrix.row(last);
+    // row i holds the creation counts of i followed by its two application counts
+    @Override
+    double[][] statistics() {
         
-        // compute total
-        int total = 0;
-        for (Integer val : values.keySet()) {
-            total += values.get(val);
+        double[][] statistics = new double[nLowLevel][nLowLevel + 2];
+        for (int i = 0; i < nLowLevel; i++) {
+            for (int j = 0; j < nLowLevel; j++) {
+                statistics[i][j] = mP[i].get(j);
+            }
+            statistics[i][nLowLevel] = mQ[i].get(0);
+            statistics[i][nLowLevel + 1] = mQ[i].get(1);
         }
         
-        // find value
-        double acum = 0.0;
-        for (Integer val : values.keySet()) {
-            acum += values.get(val);
-            
-            // check unif
-            if (acum / total > unif) {
-                return val;
+        return statistics;
+    }
+    
+    // average of both counts, not rounded as the cost-aware credits are fractional
+    @Override
+    void adoptStatistics(double[][] statistics) {
+        
+        double[] row = new double[nLowLevel];
+        for (int i = 0; i < nLowLevel; i++) {
+            for (int j = 0; j < nLowLevel; j++) {
+                row[j] = (mP[i].get(j) + statistics[i][j]) / 2;
             }
+            mP[i].assign(row);
+            mQ[i].assign(new double[] {(mQ[i].get(0) + statistics[i][nLowLevel]) / 2, 
+                (mQ[i].get(1) + statistics[i][nLowLevel + 1]) / 2});
         }
-        
-        return -1;
     }
     
     @Override
@@ -106,17 +102,10 @@ public class KheiriHyper extends MultiArmedHyperHeuristic {
         Table<Integer, Integer, Double> matrix = HashBasedTable.create();
         
         for (int i = 0; i < nLowLevel; i++) {
-            Map<Integer, Integer> values = mP.row(i);
-        
-            // compute total
-            double total = 0.0;
-            for (Integer val : values.keySet()) {
-                total += values.get(val);
-            }
             
             // add probabilities
-            for (Integer val : values.keySet()) {
-                matrix.put(i, val, values.get(val) / total);
+            for (int j = 0; j < nLowLevel; j++) {
+                matrix.put(i, j, mP[i].probability(j));
             }
         }
         
@@ -128,16 +117,7 @@ public class KheiriHyper extends MultiArmedHyperHeuristic {
         Map<Integer, Double> matrix = new HashMap<>();
         
         for (int i = 0; i < nLowLevel; i++) {
-            Map<Integer, Integer> values = mQ.row(i);
-        
-            // compute total
-            double total = 0.0;
-            for (Integer val : values.keySet()) {
-                total += values.get(val);
-            }
-            
-            // add probabilities
-            matrix.put(i, values.get(1) / total);
+            matrix.put(i, mQ[i].probability(1));
         }
         
         return matrix;
@@ -26,10 +26,10 @@ public class KheiriHyperAll extends KheiriHyper {
 
             int index1 = sequence.get(i - 1);
             int index2 = sequence.get(i);
-            mP.put(index1, index2, mP.get(index1, index2) + 1);
-            mQ.put(index1, 0, mQ.get(index1, 0) + 1);
+            mP[index1].add(index2, credit(index2));
+            mQ[index1].add(0, 1);
         }
         int index = sequence.get(sequence.size() - 1);
-        mQ.put(index, 1, mQ.get(index, 1) + 1);
+        mQ[index].add(1, 1);
     }
 }
@@ -0,0 +1,86 @@
+package multiarmedhyper.algorithm;
+
+import java.util.concurrent.Phaser;
+
+// exchanges of best solutions among the islands in epochs, at each interval every island
+// deposits its migrant and waits for the others before reading the deposits of the epoch,
+// so a seeded run with an iteration limit makes the same exchanges whatever the timing of
+// the threads, an island that stops leaves the exchanges and its last deposit stays
+final class Migration {
+    
+    // solution sent by an island, it is never modified once sent
+    static final class Migrant {
+        
+        final Solution solution;
+        final double cost;
+        
+        // learned statistics of the sender, null if they are not shared
+        final double[][] statistics;
+        
+        Migrant(Solution solution, double[][] statistics) {
+            this.solution = new Solution(solution);
+            this.cost = solution.getTotalCost();
+            this.statistics = statistics;
+        }
+    }
+    
+    // configuration
+    final int interval;
+    final boolean ring;
+    final boolean shareStatistics;
+    
+    // deposits of the islands by parity of the epoch, an island writes the next epoch
+    // only after all of them arrived at it, so nobody reads the slots being written
+    private final Migrant[][] deposits;
+    private final Migrant[] last;
+    private final int[] epoch;
+    private final Phaser phaser;
+    
+    Migration(int islands, int interval, boolean ring, boolean shareStatistics) {
+        
+        if (interval < 1) {
+            throw new AssertionError("Migration interval must be positive.");
+        }
+        
+        this.interval = interval;
+        this.ring = ring;
+        this.shareStatistics = shareStatistics;
+        deposits = new Migrant[2][islands];
+        last = new Migrant[islands];
+        epoch = new int[islands];
+        phaser = new Phaser(islands);
+    }
+    
+    // deposit the migrant of the island, or its last one if it is null, wait for the other
+    // islands and return the cheapest migrant sent to it in this epoch, null if none, the
+    // previous island of the ring or all the others, the first one in case of ties
+    Migrant exchange(int island, Migrant migrant) {
+        
+        if (migrant != null) {
+            last[island] = migrant;
+        }
+        Migrant[] slots = deposits[epoch[island] & 1];
+        epoch[island]++;
+        slots[island] = last[island];
+        phaser.arriveAndAwaitAdvance();
+        
+        int islands = slots.length;
+        if (ring) {
+            return slots[(island + islands - 1) % islands];
+        }
+        Migrant best = null;
+        for (int from = 0; from < islands; from++) {
+            if (from != island && slots[from] != null 
+                    && (best == null || slots[from].cost < best.cost)) {
+                best = slots[from];
+            }
+        }
+        
+        return best;
+    }
+    
+    // the island stopped, the others no longer wait for it
+    void leave(int island) {
+        phaser.arriveAndDeregister();
+    }
+}
@@ -0,0 +1,52 @@
+package multiarmedhyper.algorithm;
+
+// candidate change of one or two routes, evaluated by the solution without building the new routes
+final class Move {
+    
+    // segment i1..j1 of route1 inserted after position i2 of route2,
+    // positions of route2 are counted once the segment is removed
+    static final int RELOCATE = 0;
+    
+    // node at i1 of route1 exchanged with node at i2 of route2
+    static final int SWAP = 1;
+    
+    // route1 after position i1 exchanged with route2 after position i2
+    static final int TWO_OPT = 2;
+    
+    // segment i1 + 1..j1 of route1 exchanged with segment i2 + 1..j2 of route2
+    static final int CROSS = 3;
+    
+    // segments i1 + 1..j1 and j1 + 1..j2 of route1 swapped
+    static final int OR_OPT = 4;
+    
+    // move definition
+    int type;
+    int route1;
+    int route2;
+    int i1;
+    int j1;
+    int i2;
+    int j2;
+    
+    // change in travel time, negative if the move improves
+    double deltaCost;
+    
+    // the same move is reused for all the candidates of an operator
+    Move set(int type, int route1, int i1, int j1, int route2, int i2, int j2) {
+        this.type = type;
+        this.route1 = route1;
+        this.i1 = i1;
+        this.j1 = j1;
+        this.route2 = route2;
+        this.i2 = i2;
+        this.j2 = j2;
+        return this;
+    }
+    
+    // copy of the move, kept as the best one while the candidates are evaluated
+    Move copy() {
+        Move move = new Move().set(type, route1, i1, j1, route2, i2, j2);
+        move.deltaCost = deltaCost;
+        return move;
+    }
+}
@@ -6,7 +6,14 @@ import java.util.ArrayList;
 import multiarmedhyper.data.ParameterReader;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 
 public abstract class MultiArmedHyperHeuristic implements Algorithm {
     
@@ -28,17 +35,50 @@ public abstract class MultiArmedHyperHeuristic implements Algorithm {
     double time;
     String output = "";
     int app;
-    Random rand;
+    SplittableRandom rand;
+    
+    // sequences evaluated in parallel per iteration
+    int batch = 1;
+    ForkJoinPool pool;
+    
+    // route pairs of the inter-route operators evaluated in parallel
+    boolean parallelScan;
+    
+    // island model, null when the search runs alone
+    Migration migration;
+    int island;
+    double sent;
+    
+    // cooperative limit checked at each step, null when there is none
+    Budget budget;
+    
+    // receives the new best solutions and may cancel the search, null when there is none
+    SolveHandle handle;
+    
+    // best of all the searches when they share it, null when the search runs alone
+    SharedIncumbent shared;
+    
+    // snapshot of the best solution for readers on other threads
+    volatile Incumbent incumbent;
+    
+    // credit of the heuristics divided by their running time, off by default, the times
+    // are added by the sequences applied in parallel too
+    boolean costAware;
+    AtomicLongArray nanos;
+    AtomicLongArray calls;
+    AtomicLong totalNanos;
+    AtomicLong totalCalls;
+    static final double MAX_CREDIT = 10.0;
     
     public MultiArmedHyperHeuristic(ParameterReader param) {
         this.param = param;
         status = false;
-        rand = new Random();
+        rand = new SplittableRandom();
     }
     
     @Override
     public void setSeed(long seed) {
-        rand.setSeed(seed);
+        rand = new SplittableRandom(seed);
     }
     
     @Override
@@ -56,19 +96,113 @@ public abstract class MultiArmedHyperHeuristic implements Algorithm {
         this.iterLimit = iterLimit;
     }
     
+    public void setBatch(int batch) {
+        this.batch = batch;
+    }
+    
+    public void setParallelScan(boolean parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+    
+    @Override
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+    
+    @Override
+    public void setHandle(SolveHandle handle) {
+        this.handle = handle;
+    }
+    
+    @Override
+    public SolveHandle solveAsync(Consumer<Incumbent> listener) {
+        return SolveHandle.start(this, listener);
+    }
+    
+    // false when the search is cancelled or the budget stops it
+    boolean proceed() {
+        return (handle == null || !handle.isCancelled()) && (budget == null || budget.proceed());
+    }
+    
+    // seconds since the start, the running time of the search when it has a budget
+    double elapsed(long starting) {
+        return budget == null ? (System.currentTimeMillis() - starting) / 1E3 : budget.elapsed();
+    }
+    
+    void setShared(SharedIncumbent shared) {
+        this.shared = shared;
+    }
+    
+    // snapshot of the best solution for the readers, the handle and the other searches
+    void publish(int iteration) {
+        
+        incumbent = new Incumbent(best, time, iteration);
+        if (handle != null) {
+            handle.publish(incumbent);
+        }
+        if (shared != null) {
+            shared.offer(incumbent);
+        }
+    }
+    
+    void setMigration(Migration migration, int island) {
+        this.migration = migration;
+        this.island = island;
+        sent = Double.MAX_VALUE;
+    }
+    
+    public void setCostAware(boolean costAware) {
+        this.costAware = costAware;
+    }
+    
     void applySequence(Solution current, List<Integer> sequence) {
         
         for (int i = 0; i < sequence.size(); i++) {
-            current.applyLowLevel(sequence.get(i));
+            int index = sequence.get(i);
+            if (costAware) {
+                long start = System.nanoTime();
+                current.applyLowLevel(index);
+                long elapsed = System.nanoTime() - start;
+                totalNanos.addAndGet(elapsed);
+                totalCalls.incrementAndGet();
+                nanos.addAndGet(index, elapsed);
+                calls.incrementAndGet(index);
+            } else {
+                current.applyLowLevel(index);
+            }
         }
     }
     
+    // running times of the heuristics start at zero
+    void startTimes() {
+        nanos = new AtomicLongArray(nLowLevel);
+        calls = new AtomicLongArray(nLowLevel);
+        totalNanos = new AtomicLong();
+        totalCalls = new AtomicLong();
+    }
+    
+    // credit of a success of the heuristic, the mean time of all the applications over the
+    // mean time of the heuristic, bounded by MAX_CREDIT and its inverse, one when the mode
+    // is off or the heuristic has not been timed yet
+    double credit(int heuristic) {
+        
+        if (!costAware || calls.get(heuristic) == 0) {
+            return 1.0;
+        }
+        
+        double ratio = (totalNanos.get() * 1.0 / totalCalls.get()) 
+                / (nanos.get(heuristic) * 1.0 / calls.get(heuristic));
+        
+        return Math.max(1.0 / MAX_CREDIT, Math.min(MAX_CREDIT, ratio));
+    }
+    
     @Override
     public void solve() {
         
         // best solution
         best = new Solution(param);
         best.setRandom(rand);
+        best.setParallelScan(parallelScan);
         nLowLevel = best.nLowLevel();
         
         // print basic info
@@ -81,16 +215,24 @@ public abstract class MultiArmedHyperHeuristic implements Algorithm {
         // start with out-and-back routes
         best.savingsMethod();
         bestValue = best.getTotalCost();
+        publish(0);
         Solution current = new Solution(best);
         double currentCost = current.getTotalCost();
         
         // matrixes 
         algorithmStart();
+        startTimes();
         
         // empty list and initial llh
         List<Integer> sequence = new ArrayList<>();
+        List<List<Integer>> sequences = new ArrayList<>();
         int last = nextLowLevel(0);
         
+        // workers of the batch
+        if (batch > 1) {
+            pool = new ForkJoinPool(Math.min(batch, Runtime.getRuntime().availableProcessors()));
+        }
+        
         // table header
         print(toTable("time", 12) + "|" + toTable("apply", 10) 
                 + "|" + toTable("best", 18) + "|" + toTable("current", 18)
@@ -103,7 +245,7 @@ public abstract class MultiArmedHyperHeuristic implements Algorithm {
         app = 0;
         
         // iterate while time < limit
-        while (time < timeLimit && app < iterLimit) {
+        while (time < timeLimit && app < iterLimit && proceed()) {
             
             // append next low level heuristic
             int next = nextLowLevel(last);
@@ -113,42 +255,79 @@ public abstract class MultiArmedHyperHeuristic implements Algorithm {
             int apply = apply(next);
             if (apply == 1 || sequence.size() >= lenSeqLimit) {
                 
-                // a sequence is applied
-                app++;
-                
-                // tmp and current solutions
-                Solution tmp = new Solution(current);
-                applySequence(tmp, sequence);
-                double tmpCost = tmp.getTotalCost();
-                
-                // if tmp cost is less than current, then consider it success
-                if (tmpCost < currentCost) {
-                    updateTmp(sequence);
-                }
-                
-                // if tmp solution is accepted, then update current solution
-                if (acceptSolution(tmpCost)) {
-                    current = new Solution(tmp);
-                    currentCost = current.getTotalCost();
-                }
-                
-                // check if new best solution is found
-                if (tmpCost < bestValue) {
-                    best = new Solution(tmp);
-                    bestValue = tmpCost;
+                // sequences are applied once the batch is complete
+                sequences.add(sequence);
+                if (sequences.size() >= batch || app + sequences.size() >= iterLimit) {
+                    
+                    // tmp solutions
+                    Solution[] tmps = applySequences(current, sequences);
+                    double[] tmpCosts = new double[tmps.length];
+                    int cheapest = 0;
+                    double running = bestValue;
+                    for (int k = 0; k < tmps.length; k++) {
+                        tmpCosts[k] = tmps[k].getTotalCost();
+                        if (tmpCosts[k] < tmpCosts[cheapest]) {
+                            cheapest = k;
+                        }
+                        
+                        // if tmp cost is less than current, then consider it success
+                        if (tmpCosts[k] < currentCost) {
+                            updateTmp(sequences.get(k));
+                        }
+                        
+                        // update success parameters of the new best solutions, in the order
+                        // of the batch and before the acceptance
+                        if (tmpCosts[k] < running) {
+                            running = tmpCosts[k];
+                            updateSuccess(sequences.get(k));
+                        }
+                    }
+                    
+                    // the cheapest tmp solution is the candidate for current solution
+                    boolean accepted = acceptSolution(tmpCosts[cheapest]);
+                    
+                    // time of the batch, before the snapshots of new best solutions
+                    time = elapsed(starting);
+                    
+                    // check if new best solution is found, in the order of the batch
+                    for (int k = 0; k < tmps.length; k++) {
+                        if (tmpCosts[k] < bestValue) {
+                            best = new Solution(tmps[k]);
+                            bestValue = tmpCosts[k];
+                            publish(app + k + 1);
+                        }
+                    }
                     
-                    // update success parameters
-                    updateSuccess(sequence);
+                    // if tmp solution is accepted, then update current solution
+                    if (accepted) {
+                        current = new Solution(tmps[cheapest]);
+                        currentCost = current.getTotalCost();
+                    }
+                    
+                    for (int k = 0; k < tmps.length; k++) {
+                        app++;
+                        print(toTable(Double.toString(time), 12) + "|" 
+                                + toTable(Integer.toString(app), 10) 
+                                + "|" + toTable(Double.toString(Math.round(bestValue * 1E2) / 1E2), 18) 
+                                + "|" + toTable(Double.toString(Math.round(currentCost * 1E2) / 1E2), 18) 
+                                + "|" + toTable(Double.toString(Math.round(tmpCosts[k] * 1E2) / 1E2), 18) 
+                                + "|" + toTable(sequences.get(k).toString(), 20) + "\n");
+                    }
+                    
+                    // exchange best solutions with the other islands
+                    if (migration != null 
+                            && (app - tmps.length) / migration.interval < app / migration.interval) {
+                        Solution migrant = migrate();
+                        if (migrant != null) {
+                            current = migrant;
+                            currentCost = current.getTotalCost();
+                        }
+                    }
+                    
+                    // new batch
+                    sequences = new ArrayList<>();
                 }
                 
-                time = (System.currentTimeMillis() - starting) / 1E3;
-                print(toTable(Double.toString(time), 12) + "|" 
-                        + toTable(Integer.toString(app), 10) 
-                        + "|" + toTable(Double.toString(Math.round(bestValue * 1E2) / 1E2), 18) 
-                        + "|" + toTable(Double.toString(Math.round(currentCost * 1E2) / 1E2), 18) 
-                        + "|" + toTable(Double.toString(Math.round(tmpCost * 1E2) / 1E2), 18) 
-                        + "|" + toTable(sequence.toString(), 20) + "\n");
-                
                 // new list
                 sequence = new ArrayList<>();
                 next = rand.nextInt(nLowLevel);
@@ -158,16 +337,101 @@ public abstract class MultiArmedHyperHeuristic implements Algorithm {
             last = next;
             
             // update time
-            time = (System.currentTimeMillis() - starting) / 1E3;
+            time = elapsed(starting);
         }
         
         status = best.isFeasible();
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
         
         // print solution
         print("-".repeat(92) + "\n\n");
         printSolution();
     }
     
+    // copies of current with each sequence applied, in parallel when there are several
+    Solution[] applySequences(Solution current, List<List<Integer>> sequences) {
+        
+        Solution[] tmps = new Solution[sequences.size()];
+        if (tmps.length == 1) {
+            tmps[0] = new Solution(current);
+            applySequence(tmps[0], sequences.get(0));
+            return tmps;
+        }
+        
+        // each copy gets its own stream, split in the order of the batch
+        List<Callable<Solution>> tasks = new ArrayList<>();
+        for (int k = 0; k < tmps.length; k++) {
+            Solution tmp = new Solution(current);
+            tmp.setRandom(rand.split());
+            List<Integer> sequence = sequences.get(k);
+            tmps[k] = tmp;
+            tasks.add(() -> {
+                applySequence(tmp, sequence);
+                return tmp;
+            });
+        }
+        
+        // wait for all the copies
+        try {
+            for (Future<Solution> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Batch interrupted.\n" + e.toString());
+        } catch (ExecutionException e) {
+            throw new AssertionError("Sequence failed.\n" + e.getCause().toString());
+        }
+        
+        return tmps;
+    }
+    
+    // send the best solution if it improved since the last migration and adopt the
+    // best one received if it is better, the new current solution is returned or null
+    Solution migrate() {
+        
+        // send, the last migrant is sent again if the best did not improve
+        Migration.Migrant outgoing = null;
+        if (bestValue < sent) {
+            double[][] statistics = migration.shareStatistics ? statistics() : null;
+            outgoing = new Migration.Migrant(best, statistics);
+            sent = bestValue;
+        }
+        
+        // receive the migrants of the same epoch
+        Migration.Migrant migrant = migration.exchange(island, outgoing);
+        if (migrant == null || migrant.cost >= bestValue) {
+            return null;
+        }
+        if (migrant.statistics != null) {
+            adoptStatistics(migrant.statistics);
+        }
+        
+        // the copies use the random generator of this island
+        best = copy(migrant.solution);
+        best.setRandom(rand);
+        bestValue = best.getTotalCost();
+        publish(app);
+        
+        return copy(best);
+    }
+    
+    // copy of a solution of the kind this search works with
+    Solution copy(Solution solution) {
+        return new Solution(solution);
+    }
+    
+    // learned statistics shared with the other islands, null if there are none
+    double[][] statistics() {
+        return null;
+    }
+    
+    // combine the statistics of another island with the ones of this search
+    void adoptStatistics(double[][] statistics) {}
+    
     @Override
     public void setDelta(double delta) {
         this.delta = delta;
@@ -176,7 +440,12 @@ public abstract class MultiArmedHyperHeuristic implements Algorithm {
     boolean acceptSolution(double tmpCost) {
         double rho = !best.isFeasible() ? 1E-3 
                 : 1E-5 + delta * (1.0 - time * 1.0 / timeLimit);
-        return (tmpCost <  (1 + rho) * bestValue);
+        return (tmpCost <  (1 + rho) * reference());
+    }
+    
+    // best cost of this search, or of all the searches when they share the incumbent
+    double reference() {
+        return (shared != null && best.isFeasible()) ? Math.min(bestValue, shared.cost()) : bestValue;
     }
     
     abstract int nextLowLevel(int last);
@@ -262,7 +531,7 @@ public abstract class MultiArmedHyperHeuristic implements Algorithm {
     
     @Override
     public List<List<Integer>> getBestRoutes() {
-        return new ArrayList<>(best.getRoutes());
+        return new ArrayList<>(incumbent.getRoutes());
     }
     
     @Override
@@ -0,0 +1,283 @@
+package multiarmedhyper.algorithm;
+
+import com.google.common.collect.Table;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import multiarmedhyper.data.ParameterReader;
+
+// independent searches run in parallel, each worker owns its solutions and random generator,
+// only the instance data is shared and it is read-only
+public class MultiStart implements Algorithm {
+    
+    // parameters
+    final ParameterReader param;
+    final List<Algorithm> workers;
+    final long[] seeds;
+    boolean set = true;
+    
+    // result
+    Algorithm best;
+    double time;
+    String output = "";
+    
+    public MultiStart(ParameterReader param, List<Algorithm> workers) {
+        
+        if (workers.isEmpty()) {
+            throw new AssertionError("Multi-start needs at least one worker.");
+        }
+        
+        this.param = param;
+        this.workers = workers;
+        seeds = new long[workers.size()];
+        best = workers.get(0);
+    }
+    
+    // the first worker keeps the seed, the others get seeds derived from it
+    @Override
+    public void setSeed(long seed) {
+        
+        SplittableRandom derive = new SplittableRandom(seed);
+        for (int i = 0; i < workers.size(); i++) {
+            seeds[i] = (i == 0) ? seed : derive.nextLong();
+            workers.get(i).setSeed(seeds[i]);
+        }
+    }
+    
+    @Override
+    public ParameterReader getParam() {
+        return param;
+    }
+    
+    @Override
+    public void setTimeLimit(double timeLimit) {
+        for (Algorithm worker : workers) {
+            worker.setTimeLimit(timeLimit);
+        }
+    }
+    
+    @Override
+    public void setIterLimit(int iterLimit) {
+        for (Algorithm worker : workers) {
+            worker.setIterLimit(iterLimit);
+        }
+    }
+    
+    @Override
+    public void setDelta(double delta) {
+        for (Algorithm worker : workers) {
+            worker.setDelta(delta);
+        }
+    }
+    
+    // the workers publish their best solutions to one incumbent and accept solutions
+    // relative to the best cost of all of them
+    public void shareIncumbent() {
+        
+        SharedIncumbent shared = new SharedIncumbent();
+        for (Algorithm worker : workers) {
+            if (worker instanceof MultiArmedHyperHeuristic) {
+                ((MultiArmedHyperHeuristic) worker).setShared(shared);
+            } else if (worker instanceof AdaptiveLargeNeighborhoodSearch) {
+                ((AdaptiveLargeNeighborhoodSearch) worker).setShared(shared);
+            }
+        }
+    }
+    
+    // the workers run on threads of their own, they cannot share the budget of one search
+    @Override
+    public void setBudget(Budget budget) {
+        throw new AssertionError("Multi-start cannot run with a budget.");
+    }
+    
+    // the workers publish to the same handle, which keeps the best of all of them
+    @Override
+    public void setHandle(SolveHandle handle) {
+        for (Algorithm worker : workers) {
+            worker.setHandle(handle);
+        }
+    }
+    
+    @Override
+    public SolveHandle solveAsync(Consumer<Incumbent> listener) {
+        return SolveHandle.start(this, listener);
+    }
+    
+    @Override
+    public void solve() {
+        
+        // print basic info
+        print(param.info() + "\n\n");
+        print(algorithmLine() + "\n");
+        print("running " + workers.size() + " workers of " + workers.get(0).algorithmName() + " \n");
+        print(algorithmLine() + "\n\n");
+        
+        // workers write their own output only
+        List<Callable<Algorithm>> tasks = new ArrayList<>();
+        for (int i = 0; i < workers.size(); i++) {
+            Algorithm worker = workers.get(i);
+            int index = i;
+            worker.setOutput(false);
+            tasks.add(() -> {
+                try {
+                    worker.solve();
+                } finally {
+                    finished(index);
+                }
+                return worker;
+            });
+        }
+        
+        // run all workers
+        long starting = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(workers.size());
+        try {
+            for (Future<Algorithm> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Multi-start interrupted.\n" + e.toString());
+        } catch (ExecutionException e) {
+            throw new AssertionError("Worker failed.\n" + e.getCause().toString());
+        } finally {
+            pool.shutdownNow();
+        }
+        time = (System.currentTimeMillis() - starting) / 1E3;
+        
+        // best feasible worker, the first one in case of ties
+        best = workers.get(0);
+        for (Algorithm worker : workers) {
+            if ((worker.isFeasible() && !best.isFeasible())
+                    || (worker.isFeasible() == best.isFeasible()
+                    && worker.getTotalCost() < best.getTotalCost())) {
+                best = worker;
+            }
+        }
+        
+        // table of workers
+        print(toTable("worker", 8) + "|" + toTable("seed", 22)
+                + "|" + toTable("feasible", 10) + "|" + toTable("cost", 18)
+                + "|" + toTable("apply", 10) + "|" + toTable("time", 12) + "\n");
+        print("-".repeat(85) + "\n");
+        for (int i = 0; i < workers.size(); i++) {
+            Algorithm worker = workers.get(i);
+            print(toTable(Integer.toString(i), 8) + "|"
+                    + toTable(Long.toString(seeds[i]), 22)
+                    + "|" + toTable(Boolean.toString(worker.isFeasible()), 10)
+                    + "|" + toTable(Double.toString(worker.getTotalCost()), 18)
+                    + "|" + toTable(Integer.toString(worker.getIterations()), 10)
+                    + "|" + toTable(Double.toString(worker.getRunTime()), 12) + "\n");
+        }
+        print("-".repeat(85) + "\n\n");
+        
+        // print solution
+        print("best worker: " + workers.indexOf(best) + "\n");
+        print("feasible solution: " + best.isFeasible() + "\n");
+        print("total cost: " + best.getTotalCost() + "\n");
+        print("total time: " + Double.toString(time) + "\n\n");
+        if (best.isFeasible()) {
+            for (List<Integer> route : best.getBestRoutes()) {
+                print(route + "\n");
+            }
+        }
+    }
+    
+    // called on the thread of the worker once it stops, normally or not
+    void finished(int worker) {}
+    
+    @Override
+    public double getTotalCost() {
+        return best.getTotalCost();
+    }
+    
+    // summary of the workers followed by the output of the best one
+    @Override
+    public String getOutput() {
+        return output + "\n" + best.getOutput();
+    }
+    
+    // wall time of the parallel run
+    @Override
+    public double getRunTime() {
+        return Math.round(time * 1E2) / 1E2;
+    }
+    
+    // sequences applied by all the workers
+    @Override
+    public int getIterations() {
+        int total = 0;
+        for (Algorithm worker : workers) {
+            total += worker.getIterations();
+        }
+        
+        return total;
+    }
+    
+    @Override
+    public boolean isFeasible() {
+        return best.isFeasible();
+    }
+    
+    @Override
+    public void setOutput(boolean set) {
+        this.set = set;
+    }
+    
+    @Override
+    public List<List<Integer>> getBestRoutes() {
+        return best.getBestRoutes();
+    }
+    
+    @Override
+    public List<List<Double>> getBestTimes() {
+        return best.getBestTimes();
+    }
+    
+    @Override
+    public String algorithmName() {
+        return workers.get(0).algorithmName() + "x" + workers.size();
+    }
+    
+    @Override
+    public Table<Integer, Integer, Double> getTransitions() {
+        return best.getTransitions();
+    }
+    
+    @Override
+    public Map<Integer, Double> getApply() {
+        return best.getApply();
+    }
+    
+    // string for table: input string and len (spaces)
+    String toTable(String str, int len) {
+        
+        // add spaces if length < len
+        if (str.length() < len) {
+            String space = " ";
+            str += space.repeat(len - str.length());
+        }
+        
+        return str;
+    }
+    
+    // function for printing: system output and/or output string
+    void print(String str) {
+        if (set) {
+            System.out.print(str);
+        }
+        output += str;
+    }
+    
+    // this is a line for the output
+    String algorithmLine() {
+        return "*".repeat(80);
+    }
+}
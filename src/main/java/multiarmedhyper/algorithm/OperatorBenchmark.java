@@ -0,0 +1,98 @@
+package multiarmedhyper.algorithm;
+
+import java.util.SplittableRandom;
+import multiarmedhyper.data.InstanceReader;
+import multiarmedhyper.data.ParameterReader;
+
+// throughput of each low-level heuristic, every application starts from a copy of the same
+// feasible solution, the best one of a short seeded ExpoHyper run, as the savings solution
+// usually needs more vehicles than the instance has, only the heuristic itself is timed
+// usage: OperatorBenchmark [file=<path>] [applications=<n>] [seed=<n>] [warmup=<n>]
+public class OperatorBenchmark {
+    
+    public static void main(String[] args) {
+        
+        String file = "instances/gehring/C11010.TXT";
+        int applications = 20;
+        long seed = 1;
+        int warmup = 50;
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.substring(0, Math.max(equals, 0));
+            String value = arg.substring(equals + 1);
+            try {
+                switch (name) {
+                    case "file" -> file = value;
+                    case "applications" -> applications = Integer.parseInt(value);
+                    case "seed" -> seed = Long.parseLong(value);
+                    case "warmup" -> warmup = Integer.parseInt(value);
+                    default -> throw new AssertionError("Unknown argument " + arg 
+                            + ", use file=<path>, applications=<n>, seed=<n> or warmup=<n>.");
+                }
+            } catch (NumberFormatException e) {
+                throw new AssertionError("Argument incorrect: " + arg + "\n" + e.toString());
+            }
+        }
+        
+        // read instance
+        ParameterReader param = new InstanceReader(file);
+        param.read();
+        
+        // feasible initial solution
+        ExpoHyper search = new ExpoHyper(param);
+        search.setSeed(seed);
+        search.setIterLimit(warmup);
+        search.setTimeLimit(Double.MAX_VALUE);
+        search.setOutput(false);
+        search.solve();
+        if (!search.best.isFeasible()) {
+            throw new AssertionError("No feasible solution after " + warmup 
+                    + " sequences, raise warmup.");
+        }
+        Solution start = new Solution(search.best);
+        int nLowLevel = start.nLowLevel();
+        
+        // one untimed application of each heuristic
+        for (int i = 0; i < nLowLevel; i++) {
+            run(start, i, 1, seed);
+        }
+        
+        System.out.println(param.info());
+        System.out.println("start: " + Math.round(start.getTotalCost() * 1E2) / 1E2 
+                + " after " + warmup + " sequences\n");
+        System.out.println(String.format("%-10s|%-14s|%-14s|%-14s",
+                "heuristic", "ops/s", "ms/op", "mean cost"));
+        System.out.println("-".repeat(55));
+        
+        long total = 0;
+        for (int i = 0; i < nLowLevel; i++) {
+            double[] result = run(start, i, applications, seed);
+            total += (long) result[0];
+            double seconds = result[0] / 1E9;
+            System.out.println(String.format("%-10d|%-14.2f|%-14.3f|%-14.2f", i,
+                    applications / seconds, seconds * 1E3 / applications, result[1] / applications));
+        }
+        
+        System.out.println("-".repeat(55));
+        System.out.println("total time: " + total / 1E9);
+    }
+    
+    // nanoseconds of the applications and sum of the costs they reach, the random
+    // generator is the same for every heuristic
+    static double[] run(Solution start, int index, int applications, long seed) {
+        
+        SplittableRandom rand = new SplittableRandom(seed);
+        long nanos = 0;
+        double cost = 0;
+        for (int k = 0; k < applications; k++) {
+            Solution tmp = new Solution(start);
+            tmp.setRandom(rand);
+            long begin = System.nanoTime();
+            tmp.applyLowLevel(index);
+            nanos += System.nanoTime() - begin;
+            cost += tmp.getTotalCost();
+        }
+        
+        return new double[] {nanos, cost};
+    }
+}
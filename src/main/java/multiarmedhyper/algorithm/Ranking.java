@@ -0,0 +1,149 @@
+package multiarmedhyper.algorithm;
+
+// nodes sorted by value, ties broken by node id, kept in primitive arrays
+final class Ranking {
+    
+    // order of the values
+    private final boolean descending;
+    
+    // value of each node id
+    private final double[] valueOf;
+    private final boolean[] present;
+    
+    // sorted nodes
+    private final int[] keys;
+    private int total;
+    
+    Ranking(int size, boolean descending) {
+        this.descending = descending;
+        valueOf = new double[size];
+        present = new boolean[size];
+        keys = new int[size];
+    }
+    
+    int size() {
+        return total;
+    }
+    
+    double value(int key) {
+        return valueOf[key];
+    }
+    
+    // node in position rank
+    int get(int rank) {
+        
+        if (rank >= total) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " out of " + total);
+        }
+        
+        return keys[rank];
+    }
+    
+    // add a value without keeping the order, sort() must be called before using the ranking
+    void add(int key, double value) {
+        
+        if (!present[key]) {
+            present[key] = true;
+            keys[total++] = key;
+        }
+        valueOf[key] = value;
+    }
+    
+    void sort() {
+        sort(0, total - 1);
+    }
+    
+    // set the value of node, keeping the order
+    void put(int key, double value) {
+        
+        remove(key);
+        valueOf[key] = value;
+        present[key] = true;
+        
+        // first position after key
+        int pos = search(key);
+        System.arraycopy(keys, pos, keys, pos + 1, total - pos);
+        keys[pos] = key;
+        total++;
+    }
+    
+    void remove(int key) {
+        
+        if (!present[key]) {
+            return;
+        }
+        present[key] = false;
+        
+        // current position of key
+        int pos = search(key) - 1;
+        System.arraycopy(keys, pos + 1, keys, pos, total - pos - 1);
+        total--;
+    }
+    
+    // number of sorted nodes before or equal to key
+    private int search(int key) {
+        
+        int low = 0;
+        int high = total;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(keys[mid], key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        
+        return low;
+    }
+    
+    // negative if node k1 goes before node k2
+    private int compare(int k1, int k2) {
+        
+        double v1 = valueOf[k1];
+        double v2 = valueOf[k2];
+        if (v1 == v2) {
+            return Integer.compare(k1, k2);
+        }
+        if (descending) {
+            return (v1 > v2) ? -1 : 1;
+        }
+        return (v1 < v2) ? -1 : 1;
+    }
+    
+    // quicksort of the positions from to to
+    private void sort(int from, int to) {
+        
+        while (from < to) {
+            
+            // partition around the middle node
+            int pivot = keys[(from + to) >>> 1];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (compare(keys[i], pivot) < 0) {
+                    i++;
+                }
+                while (compare(keys[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            
+            // recursion on the smaller part
+            if (j - from < to - i) {
+                sort(from, j);
+                from = i;
+            } else {
+                sort(i, to);
+                to = j;
+            }
+        }
+    }
+}
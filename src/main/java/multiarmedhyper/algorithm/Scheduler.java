@@ -0,0 +1,222 @@
+package multiarmedhyper.algorithm;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// many searches multiplexed on a fixed number of carriers, a search holds a carrier for
+// a quantum and hands it over at its next step when others are waiting, the carrier goes
+// to the waiting search with the least running time divided by the weight of its class
+public class Scheduler {
+    
+    // classes of searches, the share of the carriers is proportional to the weight
+    public enum Priority {
+        HIGH(4), NORMAL(2), LOW(1);
+        
+        final int weight;
+        
+        Priority(int weight) {
+            this.weight = weight;
+        }
+    }
+    
+    // running time of one search on the carriers, it is the budget of its loop
+    final class Slice implements Budget {
+        
+        final Priority priority;
+        final long limit;
+        final long order;
+        final Condition granted;
+        
+        // nanoseconds used before the current turn and start of the current turn
+        long used;
+        long start;
+        boolean running;
+        
+        Slice(Priority priority, double budget) {
+            this.priority = priority;
+            this.limit = (long) (budget * 1E9);
+            order = submitted.getAndIncrement();
+            granted = lock.newCondition();
+        }
+        
+        // stop when the budget is spent or the search is cancelled, yield after the quantum
+        @Override
+        public boolean proceed() {
+            
+            long now = System.nanoTime();
+            if (used + now - start >= limit || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            if (now - start >= quantum && queued > 0) {
+                used += now - start;
+                release();
+                return acquire();
+            }
+            
+            return true;
+        }
+        
+        // running time in seconds, read by the search between its steps
+        @Override
+        public double elapsed() {
+            return (used + (running ? System.nanoTime() - start : 0)) / 1E9;
+        }
+        
+        // take a carrier, false if the thread is interrupted while waiting
+        boolean acquire() {
+            
+            lock.lock();
+            try {
+                if (free > 0 && waiting.isEmpty()) {
+                    free--;
+                    running = true;
+                } else {
+                    waiting.add(this);
+                    queued++;
+                    while (!running) {
+                        try {
+                            granted.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            if (!running) {
+                                waiting.remove(this);
+                                queued--;
+                                return false;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            start = System.nanoTime();
+            
+            return true;
+        }
+        
+        // give the carrier to the next waiting search
+        void release() {
+            
+            lock.lock();
+            try {
+                if (!running) {
+                    return;
+                }
+                running = false;
+                Slice next = waiting.poll();
+                if (next != null) {
+                    queued--;
+                    next.running = true;
+                    next.granted.signal();
+                } else {
+                    free++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        long share() {
+            return used / priority.weight;
+        }
+    }
+    
+    // nanoseconds a search keeps its carrier while others wait
+    final long quantum;
+    
+    // one thread per search, parked while it waits for a carrier, virtual threads by default
+    // so parked searches cost no platform thread
+    private final ExecutorService threads;
+    
+    // carriers and waiting searches, guarded by the lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Slice> waiting = new PriorityQueue<>(
+            Comparator.comparingLong(Slice::share).thenComparingLong(slice -> slice.order));
+    private int free;
+    private volatile int queued;
+    private final AtomicLong submitted = new AtomicLong();
+    
+    public Scheduler(int carriers) {
+        this(carriers, 0.01);
+    }
+    
+    // carriers running at the same time and quantum in seconds, virtual threads when the
+    // runtime has them
+    public Scheduler(int carriers, double quantum) {
+        this(carriers, quantum, null);
+    }
+    
+    // threads of the searches from the factory, the default one if it is null
+    public Scheduler(int carriers, double quantum, ThreadFactory factory) {
+        
+        if (carriers < 1) {
+            throw new AssertionError("Scheduler needs at least one carrier.");
+        }
+        
+        this.quantum = (long) (quantum * 1E9);
+        free = carriers;
+        threads = Executors.newCachedThreadPool(factory != null ? factory : defaultFactory());
+    }
+    
+    // virtual threads from Java 21 on, found by reflection as the build targets Java 17,
+    // daemon platform threads on older runtimes
+    private ThreadFactory defaultFactory() {
+        
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object virtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            virtual = builder.getMethod("name", String.class, long.class)
+                    .invoke(virtual, "search-", 0L);
+            return (ThreadFactory) builder.getMethod("factory").invoke(virtual);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return task -> {
+                Thread thread = new Thread(task, "search-" + submitted.get());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+    
+    // run the search with a budget in seconds of running time, which replaces the time
+    // limit of the algorithm so the time spent waiting does not count, a multi-start
+    // cannot be submitted as its workers run on threads of their own, submit each worker
+    public Future<Algorithm> submit(Algorithm algorithm, double budget, Priority priority) {
+        
+        Slice slice = new Slice(priority, budget);
+        algorithm.setBudget(slice);
+        algorithm.setTimeLimit(budget);
+        
+        return threads.submit(() -> {
+            if (!slice.acquire()) {
+                return algorithm;
+            }
+            try {
+                algorithm.solve();
+            } finally {
+                slice.release();
+            }
+            return algorithm;
+        });
+    }
+    
+    public Future<Algorithm> submit(Algorithm algorithm, double budget) {
+        return submit(algorithm, budget, Priority.NORMAL);
+    }
+    
+    // no new searches, the submitted ones go on
+    public void shutdown() {
+        threads.shutdown();
+    }
+    
+    // cancel all the searches, they stop at their next step
+    public void shutdownNow() {
+        threads.shutdownNow();
+    }
+}
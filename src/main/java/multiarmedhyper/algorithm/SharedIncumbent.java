@@ -0,0 +1,36 @@
+package multiarmedhyper.algorithm;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+// best solution of several concurrent searches, it is only replaced by a strictly better
+// one and readers get an immutable snapshot without locks
+public final class SharedIncumbent {
+    
+    private final AtomicReference<Incumbent> best = new AtomicReference<>();
+    
+    // null before the first solution
+    public Incumbent get() {
+        return best.get();
+    }
+    
+    // cost of the best feasible solution, max value if there is none
+    public double cost() {
+        Incumbent snapshot = best.get();
+        
+        return (snapshot != null && snapshot.isFeasible()) ? snapshot.getCost() : Double.MAX_VALUE;
+    }
+    
+    // true if the candidate becomes the incumbent
+    boolean offer(Incumbent candidate) {
+        
+        Incumbent old = best.get();
+        while (candidate.isBetter(old)) {
+            if (best.compareAndSet(old, candidate)) {
+                return true;
+            }
+            old = best.get();
+        }
+        
+        return false;
+    }
+}
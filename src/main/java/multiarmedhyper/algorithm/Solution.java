@@ -1,8 +1,6 @@
 
 package multiarmedhyper.algorithm;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -13,10 +11,13 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Random;
+import java.util.Objects;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import multiarmedhyper.data.InstanceData;
 import multiarmedhyper.data.ParameterReader;
 
 public class Solution {
@@ -24,8 +25,14 @@ public class Solution {
     // solution routes
     final List<List<Integer>> routes;
     
+    // route and position of each node, refreshed with the route values
+    private int[] routeOf;
+    private int[] posOf;
+    
     // consequences
     private List<List<Double[]>> routesTimes;
+    private List<double[]> routesLatest;
+    private List<Integer> routesLate;
     private List<Double> routesLoads;
     private List<Double> routesCosts;
     private double totalCost;
@@ -34,17 +41,33 @@ public class Solution {
     
     // global values
     final private double constFeas;
+    final private static double EPS = 1E-6;
     final private int nLowLevel = 27;
     final private int maxSetSize = 40;
-    Random rand;
+    SplittableRandom rand;
+    
+    // inter-route operators evaluate all route pairs in parallel and apply the best moves
+    boolean parallelScan;
     
-    // parameters
+    // parameters, shared by all copies of the solution
     final ParameterReader param;
+    final InstanceData data;
     final int depot;
-    final private Table<Integer, Integer, Double> times;
-    final private Map<Integer, Double[]> windows;
-    final private Map<Integer, Double> service;
-    final private Map<Integer, Double> demand;
+    final private int nVehicles;
+    final private int[] customers;
+    final private double capacity;
+    final private double[] times;
+    final private int size;
+    final private double[] early;
+    final private double[] late;
+    final private double[] service;
+    final private double[] demand;
+    final private double[] maxDistance;
+    
+    // granular neighbourhoods, null when all moves are evaluated
+    final private boolean[] shortArcs;
+    final private int[] partnersStart;
+    final private int[] partners;
     
     // utils
     private Map<Integer, LinkedHashMap<Integer, Double>> savings;
@@ -52,17 +75,29 @@ public class Solution {
     // constructor with parameter
     Solution(ParameterReader param) {
         this.param = param;
-        this.depot = param.getDepot();
         
         // get parameters
-        times = param.getTime();
-        windows = param.getTimeWindows();
-        service = param.getService();
-        demand = param.getDemand();
+        data = param.getData();
+        depot = data.getDepot();
+        nVehicles = data.getNVehicles();
+        customers = data.getCustomers();
+        capacity = data.getCapacity();
+        times = data.getDistance();
+        size = data.getSize();
+        early = data.getEarly();
+        late = data.getLate();
+        service = data.getService();
+        demand = data.getDemand();
+        maxDistance = data.getMaxDistance();
+        shortArcs = data.getShortArcs();
+        partnersStart = data.getPartnersStart();
+        partners = data.getPartners();
+        routeOf = new int[size];
+        posOf = new int[size];
         
         // for each vehicle add a dummy route
         routes = new ArrayList<>();
-        for (int i = 0; i < param.getNVehicles(); i++) {
+        for (int i = 0; i < nVehicles; i++) {
             
             // dummy route
             List<Integer> route = new ArrayList<>();
@@ -73,14 +108,12 @@ public class Solution {
         
         // compute constant
         double total = 1;
-        Set<Integer> nodes = param.getNodes();
-        nodes.remove(depot);
-        for (Integer node : nodes) {
-            total += 2 * times.get(depot, node);
+        for (int node : customers) {
+            total += 2 * distance(depot, node);
         }
         
         // mult by size
-        constFeas = total * (nodes.size() + 1);
+        constFeas = total * (customers.length + 1);
         
         // starting values 
         totalCost = constFeas;
@@ -89,6 +122,8 @@ public class Solution {
         // lists
         feasibleRoutes = new ArrayList<>();
         routesTimes = new ArrayList<>();
+        routesLatest = new ArrayList<>();
+        routesLate = new ArrayList<>();
         routesLoads = new ArrayList<>();
         routesCosts = new ArrayList<>();
         for (int i = 0; i < routes.size(); i++) {
@@ -96,19 +131,54 @@ public class Solution {
             routesLoads.add(0.0);
             feasibleRoutes.add(false);
             routesTimes.add(null);
+            routesLatest.add(null);
+            routesLate.add(0);
         }
     }
     
+    // copy constructor, instance data is shared and only the routes are copied
     Solution(Solution tmp) {
-        this(tmp.param);
+        param = tmp.param;
+        data = tmp.data;
+        depot = tmp.depot;
+        nVehicles = tmp.nVehicles;
+        customers = tmp.customers;
+        capacity = tmp.capacity;
+        times = tmp.times;
+        size = tmp.size;
+        early = tmp.early;
+        late = tmp.late;
+        service = tmp.service;
+        demand = tmp.demand;
+        maxDistance = tmp.maxDistance;
+        shortArcs = tmp.shortArcs;
+        partnersStart = tmp.partnersStart;
+        partners = tmp.partners;
+        constFeas = tmp.constFeas;
         rand = tmp.rand;
+        parallelScan = tmp.parallelScan;
+        
+        // lists
+        routes = new ArrayList<>(tmp.routes.size());
+        feasibleRoutes = new ArrayList<>(tmp.routes.size());
+        routesTimes = new ArrayList<>(tmp.routes.size());
+        routesLatest = new ArrayList<>(tmp.routes.size());
+        routesLate = new ArrayList<>(tmp.routes.size());
+        routesLoads = new ArrayList<>(tmp.routes.size());
+        routesCosts = new ArrayList<>(tmp.routes.size());
         copySolution(tmp);
     }
     
-    public void setRandom(Random rand) {
+    // the generator is confined to the thread that applies the heuristics, parallel copies
+    // get a split of it
+    public void setRandom(SplittableRandom rand) {
         this.rand = rand;
     }
     
+    public void setParallelScan(boolean parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+    
     final void copySolution(Solution tmp) {
         
         // copy routes
@@ -120,16 +190,22 @@ public class Solution {
         // copy solution 
         totalCost = tmp.totalCost;
         feasible = tmp.feasible;
+        routeOf = tmp.routeOf.clone();
+        posOf = tmp.posOf.clone();
         
         // copy lists
         feasibleRoutes.clear();
         routesTimes.clear();
+        routesLatest.clear();
+        routesLate.clear();
         routesLoads.clear();
         routesCosts.clear();
         for (int i = 0; i < tmp.routes.size(); i++) {
             routesCosts.add(tmp.routesCosts.get(i));
             routesLoads.add(tmp.routesLoads.get(i));
             feasibleRoutes.add(tmp.feasibleRoutes.get(i));
+            routesLatest.add(tmp.routesLatest.get(i));
+            routesLate.add(tmp.routesLate.get(i));
             if (tmp.routesTimes.get(i) != null) {
                 routesTimes.add(new ArrayList<>(tmp.routesTimes.get(i)));
             } else {
@@ -148,7 +224,7 @@ public class Solution {
         }
         
         // add additional one empty route if there are vehicles available
-        if (param.getNVehicles() - routes.size() > 0) {
+        if (nVehicles - routes.size() > 0) {
             List<Integer> tmp = new ArrayList<>();
             tmp.add(depot);
             tmp.add(depot);
@@ -162,6 +238,8 @@ public class Solution {
         // lists
         feasibleRoutes = new ArrayList<>();
         routesTimes = new ArrayList<>();
+        routesLatest = new ArrayList<>();
+        routesLate = new ArrayList<>();
         routesLoads = new ArrayList<>();
         routesCosts = new ArrayList<>();
         for (int i = 0; i < routes.size(); i++) {
@@ -169,6 +247,8 @@ public class Solution {
             routesLoads.add(0.0);
             feasibleRoutes.add(true);
             routesTimes.add(null);
+            routesLatest.add(null);
+            routesLate.add(0);
         }
         
         // update routes
@@ -177,9 +257,9 @@ public class Solution {
         }
         
         // check number of vehicles
-        if (param.getNVehicles() < routes.size()) {
+        if (nVehicles < routes.size()) {
             feasible = false;
-            totalCost += constFeas * (routes.size() - param.getNVehicles());
+            totalCost += constFeas * (routes.size() - nVehicles);
         }
         
         // check all routes
@@ -192,23 +272,25 @@ public class Solution {
         }
         
         // nodes must be visited exactly once 
-        Set<Integer> nodes = param.getNodes();
-        nodes.remove(depot);
+        boolean[] visited = new boolean[size];
+        int missing = customers.length;
         for (int i = 0; i < routes.size(); i++) {
             List<Integer> route = routes.get(i);
             for (int j = 1; j < route.size() - 1; j++) {
                 int node = route.get(j);
-                if (!nodes.contains(node)) {
+                if (node == depot || visited[node]) {
                     feasible = false;
                     totalCost += constFeas;
+                } else {
+                    visited[node] = true;
+                    missing--;
                 }
-                nodes.remove(node);
             }
         }
         
-        if (!nodes.isEmpty()) {
+        if (missing > 0) {
             feasible = false;
-            totalCost += constFeas * nodes.size();
+            totalCost += constFeas * missing;
         }
     }
     
@@ -221,8 +303,9 @@ public class Solution {
         double cost = 0;
 
         int last = route.get(0);
-        double time = service.get(last);
+        double time = service[last];
         double quantity = 0;
+        int firstLate = route.size();
         List<Double[]> locTimes = new ArrayList<>();
         locTimes.add(new Double[] {time, time, time});
         for (int i = 1; i < route.size(); i++) {
@@ -232,54 +315,194 @@ public class Solution {
             
             // get node 
             int node = route.get(i);
-            cost += times.get(last, node);
+            cost += distance(last, node);
             
             // consider the arrival time to check time window
-            time += times.get(last, node);
+            time += distance(last, node);
             vector[0] = time;
-            if (windows.get(node)[1] < time) {
+            if (late[node] < time) {
                 cost += constFeas;
+                firstLate = Math.min(firstLate, i);
             }
             
             // wait if too early
-            if (windows.get(node)[0] > time) {
-                time = windows.get(node)[0];
+            if (early[node] > time) {
+                time = early[node];
             }
             vector[1] = time;
             
             // check quantity
-            quantity += demand.get(node);
-            if (quantity > param.getCapacity()) {
+            quantity += demand[node];
+            if (quantity > capacity) {
                 cost += constFeas;
             }
             
             // finally sum service time
-            time += service.get(node);
+            time += service[node];
             vector[2] = time;
             locTimes.add(vector);
             last = node;
         }
+        indexRoute(index);
+        
+        // latest arrival at each position keeping the rest of the route feasible
+        double[] latest = new double[route.size()];
+        latest[route.size() - 1] = late[route.get(route.size() - 1)];
+        for (int i = route.size() - 2; i >= 0; i--) {
+            int node = route.get(i);
+            double bound = latest[i + 1] - distance(node, route.get(i + 1)) - service[node];
+            
+            // waiting at node already makes the route infeasible or tight
+            if (early[node] > bound + EPS) {
+                bound = Double.NEGATIVE_INFINITY;
+            } else if (early[node] >= bound - EPS) {
+                bound = Double.NaN;
+            }
+            latest[i] = Math.min(late[node], bound);
+        }
         
-        // keep values
-        if (routesCosts.size() > index) {
+        // keep values, a new route was added at index when the sizes differ
+        if (routesCosts.size() == routes.size()) {
             routesCosts.set(index, cost);
             routesLoads.set(index, quantity);
             feasibleRoutes.set(index, cost < constFeas);
             routesTimes.set(index, locTimes);
+            routesLatest.set(index, latest);
+            routesLate.set(index, firstLate);
         } else {
             routesCosts.add(index, cost);
             routesLoads.add(index, quantity);
             feasibleRoutes.add(index, cost < constFeas);
             routesTimes.add(index, locTimes);
+            routesLatest.add(index, latest);
+            routesLate.add(index, firstLate);
+        }
+    
+    }
+    
+    // re-evaluate all routes after operators that edit them in place
+    private void updateRoutes() {
+        for (int i = 0; i < routes.size(); i++) {
+            updateRoute(i);
+        }
+    }
+    
+    // departure time from position pos of route index, NaN if the route is late before
+    private double departure(int index, int pos) {
+        
+        if (pos >= routesLate.get(index)) {
+            return Double.NaN;
+        }
+        
+        return routesTimes.get(index).get(pos)[2];
+    }
+    
+    // departure time from node leaving last at time, NaN if the window is missed
+    private double visit(int last, int node, double time) {
+        
+        time += distance(last, node);
+        if (!(late[node] >= time)) {
+            return Double.NaN;
+        }
+        if (early[node] > time) {
+            time = early[node];
+        }
+        
+        return time + service[node];
+    }
+    
+    // departure time after visiting positions from to to of route, NaN if late
+    private double visit(List<Integer> route, int from, int to, int last, double time) {
+        
+        for (int i = from; i <= to; i++) {
+            int node = route.get(i);
+            time = visit(last, node, time);
+            last = node;
+        }
+        
+        return time;
+    }
+    
+    // check whether route index can be completed from position pos leaving last at time
+    private boolean feasibleSuffix(int index, int pos, int last, double time) {
+        
+        if (Double.isNaN(time)) {
+            return false;
+        }
+        List<Integer> route = routes.get(index);
+        
+        // compare with the route slack
+        if (feasibleRoutes.get(index)) {
+            double arrival = time + distance(last, route.get(pos));
+            double limit = routesLatest.get(index)[pos];
+            if (arrival > limit + EPS) {
+                return false;
+            }
+            if (arrival <= limit - EPS) {
+                return true;
+            }
         }
         
+        // too close to the limit, simulate the rest of the route
+        time = visit(route, pos, route.size() - 1, last, time);
+        
+        return !Double.isNaN(time);
+    }
+    
+    // store route and position of all nodes in route index
+    private void indexRoute(int index) {
+        
+        List<Integer> route = routes.get(index);
+        for (int i = 1; i < route.size() - 1; i++) {
+            int node = route.get(i);
+            routeOf[node] = index;
+            posOf[node] = i;
+        }
+    }
+    
+    // index of the route visiting node, -1 if it is not in any route
+    private int findRoute(int node) {
+        
+        // check stored position
+        int index = routeOf[node];
+        if (index < routes.size()) {
+            List<Integer> route = routes.get(index);
+            if (posOf[node] < route.size() && route.get(posOf[node]) == node) {
+                return index;
+            }
+        }
+        
+        // routes changed since the last update, search all routes
+        for (int i = 0; i < routes.size(); i++) {
+            List<Integer> route = routes.get(i);
+            for (int j = 1; j < route.size() - 1; j++) {
+                if (route.get(j) == node) {
+                    routeOf[node] = i;
+                    posOf[node] = j;
+                    return i;
+                }
+            }
+        }
+        
+        return -1;
+    }
+    
+    // remove node from its route, returns the route index
+    private int removeNode(int node) {
+        
+        int index = findRoute(node);
+        List<Integer> route = routes.get(index);
+        route.remove(posOf[node]);
+        indexRoute(index);
+        
+        return index;
     }
     
     // check whether the route in index is feasible or not
     private boolean feasible(List<Integer> route) {
         
         int last = route.get(0);
-        double time = service.get(last);
+        double time = service[last];
         double quantity = 0;
         for (int i = 1; i < route.size(); i++) {
             
@@ -287,30 +510,94 @@ public class Solution {
             int node = route.get(i);
             
             // consider the arrival time to check time window
-            time += times.get(last, node);
-            if (windows.get(node)[1] < time) {
+            time += distance(last, node);
+            if (late[node] < time) {
                 return false;
             }
             
             // wait if too early
-            if (windows.get(node)[0] > time) {
-                time = windows.get(node)[0];
+            if (early[node] > time) {
+                time = early[node];
             }
             
             // check quantity
-            quantity += demand.get(node);
-            if (quantity > param.getCapacity()) {
+            quantity += demand[node];
+            if (quantity > capacity) {
                 return false;
             }
             
             // finally sum service time
-            time += service.get(node);
+            time += service[node];
             last = node;
         }
         
         return true;
     }
     
+    // travel time between two nodes
+    private double distance(int n1, int n2) {
+        return times[n1 * size + n2];
+    }
+    
+    // arcs with the depot or between nearest neighbours are short
+    private boolean isShort(int n1, int n2) {
+        return shortArcs == null || n1 == depot || n2 == depot || shortArcs[n1 * size + n2];
+    }
+    
+    // pairs of routes with nearest neighbours between them, null if not granular
+    private boolean[] closeRoutes() {
+        
+        if (shortArcs == null) {
+            return null;
+        }
+        int total = routes.size();
+        boolean[] close = new boolean[total * total];
+        for (int i = 0; i < total; i++) {
+            List<Integer> route = routes.get(i);
+            for (int j = 1; j < route.size() - 1; j++) {
+                int node = route.get(j);
+                for (int l = partnersStart[node]; l < partnersStart[node + 1]; l++) {
+                    int index = findRoute(partners[l]);
+                    if (index >= 0) {
+                        close[i * total + index] = true;
+                    }
+                }
+            }
+        }
+        
+        return close;
+    }
+    
+    // check whether a move between routes index1 and index2 can create a short arc
+    private boolean close(boolean[] close, int index1, int index2) {
+        return close == null || close[index1 * routes.size() + index2];
+    }
+    
+    // row and column of route index once a move changed its nodes, the pairs stay symmetric
+    // as the short arcs are
+    private void updateClose(boolean[] close, int index) {
+        
+        if (close == null) {
+            return;
+        }
+        int total = routes.size();
+        for (int i = 0; i < total; i++) {
+            close[index * total + i] = false;
+            close[i * total + index] = false;
+        }
+        List<Integer> route = routes.get(index);
+        for (int j = 1; j < route.size() - 1; j++) {
+            int node = route.get(j);
+            for (int l = partnersStart[node]; l < partnersStart[node + 1]; l++) {
+                int other = findRoute(partners[l]);
+                if (other >= 0) {
+                    close[index * total + other] = true;
+                    close[other * total + index] = true;
+                }
+            }
+        }
+    }
+    
     // return total cost of the solution
     double getTotalCost() {
         return totalCost;
@@ -366,9 +653,7 @@ public class Solution {
         
         // initialize routes out-and-back
         routes.clear();
-        Set<Integer> nodes = param.getNodes();
-        nodes.remove(depot);
-        for (Integer node : nodes) {
+        for (int node : customers) {
             List<Integer> route = new ArrayList<>();
             route.add(depot);
             route.add(node);
@@ -413,7 +698,7 @@ public class Solution {
             // check route in random order 
             List<Integer> indexes = IntStream.rangeClosed(0, routes.size() - 1)
                     .boxed().collect(Collectors.toList());
-            Collections.shuffle(indexes, new Random(rand.nextLong()));
+            shuffle(indexes);
 
             for (int index1 : indexes) {
 
@@ -436,7 +721,7 @@ public class Solution {
                     int index2 = check.get(con);
                     double load1 = routesLoads.get(index1);
                     double load2 = routesLoads.get(index2);
-                    if (load1 + load2 > param.getCapacity()) {
+                    if (load1 + load2 > capacity) {
                         continue;
                     }
                     
@@ -449,16 +734,16 @@ public class Solution {
                     for (int j = 1; j < route2.size(); j++) {
                         
                         int nextNode = route2.get(j);
-                        time += times.get(last, nextNode);
-                        if (windows.get(nextNode)[1] < time) {
+                        time += distance(last, nextNode);
+                        if (late[nextNode] < time) {
                             timeFeasible = false;
                             break;
                         }
                         
-                        if (windows.get(nextNode)[0] > time) {
-                            time = windows.get(nextNode)[0];
+                        if (early[nextNode] > time) {
+                            time = early[nextNode];
                         }
-                        time += service.get(nextNode);
+                        time += service[nextNode];
                         last = nextNode;
                     }
                     
@@ -492,37 +777,53 @@ public class Solution {
     
     private void computeSavings() {
         
+        // rows computed in parallel, in the order of the routes
+        List<LinkedHashMap<Integer, Double>> rows = IntStream.range(0, routes.size())
+                .parallel()
+                .mapToObj(this::savingsRow)
+                .collect(Collectors.toList());
+        
         // create map
         savings = new HashMap<>();
-        
         for (int i = 0; i < routes.size(); i++) {
-            
-            // if empty route continue
-            List<Integer> route1 = routes.get(i);
-            if (route1.size() < 3) {
-                continue;
+            if (rows.get(i) != null) {
+                List<Integer> route1 = routes.get(i);
+                savings.put(route1.get(route1.size() - 2), rows.get(i));
             }
-            
-            // create map
-            int node1 = route1.get(route1.size() - 2);
-            Map<Integer, Double> map = new HashMap<>();
-            for (int j = 0; j < routes.size(); j++) {
-
-                // compute savings for different nodes
-                List<Integer> route2 = routes.get(j);
-                if (i == j || route2.size() < 3) {
-                    continue;
-                }
-                int node2 = route2.get(1);
-                double value = times.get(node1, depot) + times.get(depot, node2) 
-                        - times.get(node1, node2);
-                map.put(j, value);
+        }
+    }
+    
+    // savings of joining route i with each other route, sorted from the largest one
+    private LinkedHashMap<Integer, Double> savingsRow(int i) {
+        
+        // if empty route continue
+        List<Integer> route1 = routes.get(i);
+        if (route1.size() < 3) {
+            return null;
+        }
+        
+        // compute savings for different nodes
+        int node1 = route1.get(route1.size() - 2);
+        Ranking ranking = new Ranking(routes.size(), true);
+        for (int j = 0; j < routes.size(); j++) {
+            List<Integer> route2 = routes.get(j);
+            if (i == j || route2.size() < 3) {
+                continue;
             }
-            
-            // sort table
-            LinkedHashMap<Integer, Double> sorted = sortMap(map, true);
-            savings.put(node1, sorted);
+            int node2 = route2.get(1);
+            ranking.add(j, distance(node1, depot) + distance(depot, node2) 
+                    - distance(node1, node2));
         }
+        
+        // sort row
+        ranking.sort();
+        LinkedHashMap<Integer, Double> sorted = new LinkedHashMap<>();
+        for (int k = 0; k < ranking.size(); k++) {
+            int j = ranking.get(k);
+            sorted.put(j, ranking.value(j));
+        }
+        
+        return sorted;
     }
     
     // move one node from index route to another route
@@ -536,18 +837,22 @@ public class Solution {
             return;
         }
         
-        // info 
-        double capacity = param.getCapacity();
-        
         // all nodes
+        Move move = new Move();
         for (int k = 1; k < route.size() - 1; ) {
             
+            // only next to the nearest neighbours of the node
+            if (shortArcs != null) {
+                if (!shiftNear(move, index, k)) {
+                    k++;
+                }
+                continue;
+            }
+            
             // get nodes
-            Integer node = route.get(k);
-            double nodeLoad = demand.get(node);
-            double lastest = windows.get(node)[1];
-            Integer n1 = route.get(k - 1);
-            Integer n2 = route.get(k + 1);
+            int node = route.get(k);
+            double nodeLoad = demand[node];
+            double lastest = late[node];
             
             // check routes in random order
             List<Integer> indexes = getRandomIndexes();
@@ -564,45 +869,23 @@ public class Solution {
                 }
                 
                 // check all positions
-                List<Integer> review = new ArrayList<>(routes.get(index2));
+                List<Integer> review = routes.get(index2);
                 for (int j = 1; j < review.size(); j++) {
                     
-                    // nodes 
-                    Integer m1 = review.get(j - 1);
-                    Integer m2 = review.get(j);
-                    
-                    // compute diff
-                    double org = times.get(n1, node) + times.get(node, n2) 
-                            + times.get(m1, m2);
-                    double change = times.get(n1, n2) + times.get(m1, node) 
-                            + times.get(node, m2);
-                    if (org - change <= 0) {
+                    // insert node between positions j - 1 and j
+                    move.set(Move.RELOCATE, index, k, k, index2, j - 1, j - 1);
+                    if (delta(move) >= 0) {
                         continue;
                     }
                     
                     // check time
                     double lastTime = routesTimes.get(index2).get(j - 1)[2];
-                    if (lastTime + times.get(m1, node) > lastest) {
+                    if (lastTime + distance(review.get(j - 1), node) > lastest) {
                         break;
                     }
-                      
-                    // new route
-                    List<Integer> tmp2 = new ArrayList<>(review);
-                    tmp2.add(j, node);
-                    if (feasible(tmp2)) {
-                        
-                        // update route
-                        routes.set(index2, tmp2);
-                        updateRoute(index2);
-
-                        // remove node
-                        List<Integer> tmp1 = new ArrayList<>(route);
-                        tmp1.remove(node);
-                        routes.set(index, tmp1);
-                        updateRoute(index);
-
-                        // update
-                        route = new ArrayList<>(routes.get(index));
+                    
+                    if (feasible(move, false)) {
+                        apply(move);
                         inserted = true;
                         break;
                     }
@@ -616,62 +899,71 @@ public class Solution {
         }
     }
     
+    // move node at position k of route index next to one of its nearest neighbours
+    private boolean shiftNear(Move move, int index, int k) {
+        
+        int node = routes.get(index).get(k);
+        for (int j = partnersStart[node]; j < partnersStart[node + 1]; j++) {
+            
+            // check route and load
+            int partner = partners[j];
+            int index2 = findRoute(partner);
+            if (index2 < 0 || index2 == index 
+                    || routesLoads.get(index2) + demand[node] > capacity) {
+                continue;
+            }
+            
+            // insert before or after the neighbour
+            int pos = posOf[partner];
+            for (int i2 = pos - 1; i2 <= pos; i2++) {
+                move.set(Move.RELOCATE, index, k, k, index2, i2, i2);
+                if (delta(move) < 0 && feasible(move, false)) {
+                    apply(move);
+                    return true;
+                }
+            }
+        }
+        
+        return false;
+    }
+    
     private void searchShiftSame(int index) {
         
         // get route 
         List<Integer> route = routes.get(index);
         
-        // check number of nodes
-        if (route.size() < 4) {
+        // check number of nodes and load
+        if (route.size() < 4 || routesLoads.get(index) > capacity) {
             return;
         }
         
         // all nodes
+        Move move = new Move();
         for (int k = 1; k < route.size() - 1; ) {
             
             // get nodes
-            Integer node = route.get(k);
-            double lastest = windows.get(node)[1];
-            Integer n1 = route.get(k - 1);
-            Integer n2 = route.get(k + 1);
+            int node = route.get(k);
+            double lastest = late[node];
             
             int pos = -1;
             
-            // check all positions
-            List<Integer> review = new ArrayList<>(route);
-            review.remove(node);
-            for (int j = 1; j < review.size(); j++) {
-
-                // nodes 
-                Integer m1 = review.get(j - 1);
-                Integer m2 = review.get(j);
-
-                // compute diff
-                double org = times.get(n1, node) + times.get(node, n2) 
-                        + times.get(m1, m2);
-                double change = times.get(n1, n2) + times.get(m1, node) 
-                        + times.get(node, m2);
-                if (org - change <= 0) {
+            // check all positions of the route without node
+            for (int j = 1; j < route.size() - 1; j++) {
+                
+                // move node to position j
+                move.set(Move.RELOCATE, index, k, k, index, j - 1, j - 1);
+                if (delta(move) >= 0) {
                     continue;
                 }
-
+                
                 // check time
                 double lastTime = routesTimes.get(index).get(j - 1)[2];
-                if (lastTime + times.get(m1, node) > lastest) {
+                if (lastTime + distance(relocated(move, j - 1), node) > lastest) {
                     break;
                 }
-
-                // new route
-                List<Integer> tmp = new ArrayList<>(review);
-                tmp.add(j, node);
-                if (feasible(tmp)) {
-                    
-                    // update route
-                    routes.set(index, tmp);
-                    updateRoute(index);
-
-                    // update
-                    route = new ArrayList<>(routes.get(index));
+                
+                if (feasible(move)) {
+                    apply(move);
                     pos = j;
                     break;
                 }
@@ -702,13 +994,20 @@ public class Solution {
         
         List<Integer> indexes = IntStream.rangeClosed(0, routes.size() - 1)
                 .boxed().collect(Collectors.toList());
-        Collections.shuffle(indexes, new Random(rand.nextLong()));
+        shuffle(indexes);
         int total = Math.min(indexes.size(), maxSetSize);
         
         return indexes.subList(0, total);
     }
     
-    private void crossExchange(int index, int len) {
+    // random order drawn from the generator of the solution
+    void shuffle(List<Integer> indexes) {
+        for (int i = indexes.size() - 1; i > 0; i--) {
+            Collections.swap(indexes, i, rand.nextInt(i + 1));
+        }
+    }
+    
+    private void crossExchange(int index, int len, boolean[] close) {
         
         // get route 
         List<Integer> route1 = routes.get(index);
@@ -720,12 +1019,13 @@ public class Solution {
         }
         
         // check routes randomly
+        Move move = new Move();
         List<Integer> indexes = getRandomIndexes();
         for (int k : indexes) {
-            if (k == index) {
+            if (k == index || (feas1 && !close(close, index, k))) {
                 continue;
             }
-            List<Integer> route2 = new ArrayList<>(routes.get(k));
+            List<Integer> route2 = routes.get(k);
             boolean feas2 = feasible(route2);
             
             // check combinations
@@ -734,38 +1034,14 @@ public class Solution {
                     for (int j1 = i1; j1 < route1.size() - 1 && j1 < i1 + len; j1++) {
                         for (int j2 = i2; j2 < route2.size() - 1 && j2 < i2 + len; j2++) {
                             
-                            // get nodes route1
-                            int w1 = route1.get(i1);
-                            int x1 = route1.get(i1 + 1);
-                            int y1 = route1.get(j1);
-                            int z1 = route1.get(j1 + 1);
-                            
-                            // get nodes route2
-                            int w2 = route2.get(i2);
-                            int x2 = route2.get(i2 + 1);
-                            int y2 = route2.get(j2);
-                            int z2 = route2.get(j2 + 1); 
-                            
-                            // compute gain
-                            double org = times.get(w1, x1) + times.get(w2, x2) 
-                                    + times.get(y1, z1) + times.get(y2, z2);
-                            double change = times.get(w1, x2) + times.get(w2, x1) 
-                                    + times.get(y1, z2) + times.get(y2, z1);
-                            double diff = org - change;
-                            if (diff > 0 || !feas1 || !feas2) {
-                                
-                                // create routes
-                                List<Integer> tmp1 = new ArrayList<>(route1.subList(0, i1 + 1));
-                                tmp1.addAll(route2.subList(i2 + 1, j2 + 1));
-                                tmp1.addAll(route1.subList(j1 + 1, route1.size()));
-                                
-                                List<Integer> tmp2 = new ArrayList<>(route2.subList(0, i2 + 1));
-                                tmp2.addAll(route1.subList(i1 + 1, j1 + 1));
-                                tmp2.addAll(route2.subList(j2 + 1, route2.size()));
-                                 
-                                if ((!feas1 || feasible(tmp1)) && (!feas2 || feasible(tmp2))) {
-                                    routes.set(index, tmp1);
-                                    routes.set(k, tmp2);
+                            // exchange segments i1 + 1..j1 and i2 + 1..j2
+                            move.set(Move.CROSS, index, i1, j1, k, i2, j2);
+                            if ((granular(move) && delta(move) < 0) || !feas1 || !feas2) {
+                                if ((!feas1 || feasible(move, true)) 
+                                        && (!feas2 || feasible(move, false))) {
+                                    apply(move);
+                                    updateClose(close, index);
+                                    updateClose(close, k);
                                     return;
                                 }
                             }
@@ -777,12 +1053,413 @@ public class Solution {
         
     }
     
+    // best cross exchange of segments up to len nodes between two routes, null if none
+    private Move bestCross(int index1, int index2, int len, boolean[] close) {
+        
+        // get routes
+        List<Integer> route1 = routes.get(index1);
+        List<Integer> route2 = routes.get(index2);
+        boolean feas1 = feasible(route1);
+        boolean feas2 = feasible(route2);
+        if (route1.size() < 3 || (feas1 && !close(close, index1, index2))) {
+            return null;
+        }
+        
+        // check combinations
+        Move best = null;
+        Move move = new Move();
+        for (int i1 = 0; i1 < route1.size() - 2; i1++) {
+            for (int i2 = 0; i2 < route2.size() - 2; i2++) {
+                for (int j1 = i1; j1 < route1.size() - 1 && j1 < i1 + len; j1++) {
+                    for (int j2 = i2; j2 < route2.size() - 1 && j2 < i2 + len; j2++) {
+                        
+                        // exchange segments i1 + 1..j1 and i2 + 1..j2
+                        move.set(Move.CROSS, index1, i1, j1, index2, i2, j2);
+                        if (!granular(move) && feas1 && feas2) {
+                            continue;
+                        }
+                        delta(move);
+                        if ((move.deltaCost < 0 || !feas1 || !feas2)
+                                && (best == null || move.deltaCost < best.deltaCost)
+                                && (!feas1 || feasible(move, true)) 
+                                && (!feas2 || feasible(move, false))) {
+                            best = move.copy();
+                        }
+                    }
+                }
+            }
+        }
+        
+        return best;
+    }
+    
+    // evaluate the best move of all pairs of routes in parallel, the routes are not changed
+    // meanwhile, then apply the moves from the best one skipping those with a changed route
+    private void parallelScan(BiFunction<Integer, Integer, Move> best) {
+        
+        // pairs of routes
+        List<Integer> indexes = getRandomIndexes();
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < indexes.size(); i++) {
+            for (int j = i + 1; j < indexes.size(); j++) {
+                pairs.add(new int[] {indexes.get(i), indexes.get(j)});
+            }
+        }
+        
+        // best moves in the order of the pairs, sorted by cost
+        List<Move> moves = pairs.parallelStream()
+                .map(pair -> best.apply(pair[0], pair[1]))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingDouble(move -> move.deltaCost))
+                .collect(Collectors.toList());
+        
+        // apply the moves that do not conflict
+        boolean[] changed = new boolean[routes.size()];
+        for (Move move : moves) {
+            if (!changed[move.route1] && !changed[move.route2]) {
+                changed[move.route1] = true;
+                changed[move.route2] = true;
+                apply(move);
+            }
+        }
+        
+        updateSolution();
+    }
+    
+    // route index1 with positions i1 + 1..j1 replaced by positions i2 + 1..j2 of index2
+    private boolean feasibleExchange(int index1, int i1, int j1, int index2, int i2, int j2) {
+        
+        List<Integer> route1 = routes.get(index1);
+        List<Integer> route2 = routes.get(index2);
+        
+        // check load
+        double load = routesLoads.get(index1);
+        for (int i = i1 + 1; i <= j1; i++) {
+            load -= demand[route1.get(i)];
+        }
+        for (int i = i2 + 1; i <= j2; i++) {
+            load += demand[route2.get(i)];
+        }
+        if (load > capacity) {
+            return false;
+        }
+        
+        // check time
+        int last = (j2 > i2) ? route2.get(j2) : route1.get(i1);
+        double dep = visit(route2, i2 + 1, j2, route1.get(i1), departure(index1, i1));
+        
+        return feasibleSuffix(index1, j1 + 1, last, dep);
+    }
+    
+    // node at position pos of the second route of a relocation, once the segment is removed
+    private int relocated(Move move, int pos) {
+        
+        List<Integer> route = routes.get(move.route2);
+        if (move.route1 == move.route2 && pos >= move.i1) {
+            pos += move.j1 - move.i1 + 1;
+        }
+        
+        return route.get(pos);
+    }
+    
+    // check whether move creates at least one short arc
+    private boolean granular(Move move) {
+        
+        if (shortArcs == null) {
+            return true;
+        }
+        List<Integer> route1 = routes.get(move.route1);
+        List<Integer> route2 = routes.get(move.route2);
+        int i1 = move.i1;
+        int j1 = move.j1;
+        int i2 = move.i2;
+        int j2 = move.j2;
+        switch (move.type) {
+            case Move.RELOCATE: {
+                int m1 = relocated(move, i2);
+                int m2 = relocated(move, i2 + 1);
+                return isShort(route1.get(i1 - 1), route1.get(j1 + 1)) 
+                        || isShort(m1, route1.get(i1)) || isShort(route1.get(j1), m2);
+            }
+            case Move.SWAP: {
+                int a = route1.get(i1);
+                int b = route2.get(i2);
+                return isShort(route1.get(i1 - 1), b) || isShort(b, route1.get(i1 + 1))
+                        || isShort(route2.get(i2 - 1), a) || isShort(a, route2.get(i2 + 1));
+            }
+            case Move.TWO_OPT: 
+                return isShort(route1.get(i1), route2.get(i2 + 1)) 
+                        || isShort(route2.get(i2), route1.get(i1 + 1));
+            case Move.CROSS: 
+                return isShort(route1.get(i1), route2.get(i2 + 1)) 
+                        || isShort(route2.get(i2), route1.get(i1 + 1))
+                        || isShort(route1.get(j1), route2.get(j2 + 1)) 
+                        || isShort(route2.get(j2), route1.get(j1 + 1));
+            case Move.OR_OPT: 
+                return isShort(route1.get(i1), route1.get(j1 + 1)) 
+                        || isShort(route1.get(j2), route1.get(i1 + 1)) 
+                        || isShort(route1.get(j1), route1.get(j2 + 1));
+            default:
+                throw new AssertionError("Unknown move " + move.type);
+        }
+    }
+    
+    // compute the change in travel time of move, also kept in the move
+    private double delta(Move move) {
+        
+        List<Integer> route1 = routes.get(move.route1);
+        List<Integer> route2 = routes.get(move.route2);
+        int i1 = move.i1;
+        int j1 = move.j1;
+        int i2 = move.i2;
+        int j2 = move.j2;
+        double org;
+        double change;
+        switch (move.type) {
+            case Move.RELOCATE: {
+                int n1 = route1.get(i1 - 1);
+                int n2 = route1.get(i1);
+                int n3 = route1.get(j1);
+                int n4 = route1.get(j1 + 1);
+                int m1 = relocated(move, i2);
+                int m2 = relocated(move, i2 + 1);
+                org = distance(n1, n2) + distance(n3, n4) + distance(m1, m2);
+                change = distance(n1, n4) + distance(m1, n2) + distance(n3, m2);
+                break;
+            }
+            case Move.SWAP: {
+                int a = route1.get(i1);
+                int b = route2.get(i2);
+                org = distance(route1.get(i1 - 1), a) + distance(a, route1.get(i1 + 1))
+                        + distance(route2.get(i2 - 1), b) + distance(b, route2.get(i2 + 1));
+                change = distance(route1.get(i1 - 1), b) + distance(b, route1.get(i1 + 1))
+                        + distance(route2.get(i2 - 1), a) + distance(a, route2.get(i2 + 1));
+                break;
+            }
+            case Move.TWO_OPT: {
+                org = distance(route1.get(i1), route1.get(i1 + 1)) 
+                        + distance(route2.get(i2), route2.get(i2 + 1));
+                change = distance(route1.get(i1), route2.get(i2 + 1)) 
+                        + distance(route2.get(i2), route1.get(i1 + 1));
+                break;
+            }
+            case Move.CROSS: {
+                // both segments are taken as non-empty
+                int w1 = route1.get(i1);
+                int x1 = route1.get(i1 + 1);
+                int y1 = route1.get(j1);
+                int z1 = route1.get(j1 + 1);
+                int w2 = route2.get(i2);
+                int x2 = route2.get(i2 + 1);
+                int y2 = route2.get(j2);
+                int z2 = route2.get(j2 + 1);
+                org = distance(w1, x1) + distance(w2, x2) 
+                        + distance(y1, z1) + distance(y2, z2);
+                change = distance(w1, x2) + distance(w2, x1) 
+                        + distance(y1, z2) + distance(y2, z1);
+                break;
+            }
+            case Move.OR_OPT: {
+                int n1 = route1.get(i1);
+                int n2 = route1.get(i1 + 1);
+                int n3 = route1.get(j1);
+                int n4 = route1.get(j1 + 1);
+                int n5 = route1.get(j2);
+                int n6 = route1.get(j2 + 1);
+                org = distance(n1, n2) + distance(n3, n4) + distance(n5, n6);
+                change = distance(n1, n4) + distance(n5, n2) + distance(n3, n6);
+                break;
+            }
+            default:
+                throw new AssertionError("Unknown move " + move.type);
+        }
+        move.deltaCost = change - org;
+        
+        return move.deltaCost;
+    }
+    
+    // check whether both routes changed by move are feasible
+    private boolean feasible(Move move) {
+        return feasible(move, true) && (move.route1 == move.route2 || feasible(move, false));
+    }
+    
+    // check whether the first or the second route changed by move is feasible
+    private boolean feasible(Move move, boolean first) {
+        
+        List<Integer> route1 = routes.get(move.route1);
+        List<Integer> route2 = routes.get(move.route2);
+        int i1 = move.i1;
+        int j1 = move.j1;
+        int i2 = move.i2;
+        int j2 = move.j2;
+        switch (move.type) {
+            case Move.RELOCATE: {
+                
+                // segment moved within the same route
+                if (move.route1 == move.route2) {
+                    double dep;
+                    int last;
+                    int end;
+                    if (i2 < i1) {
+                        dep = visit(route1, i1, j1, route1.get(i2), departure(move.route1, i2));
+                        dep = visit(route1, i2 + 1, i1 - 1, route1.get(j1), dep);
+                        last = (i2 + 1 < i1) ? route1.get(i1 - 1) : route1.get(j1);
+                        end = j1;
+                    } else {
+                        end = i2 + j1 - i1 + 1;
+                        dep = visit(route1, j1 + 1, end, route1.get(i1 - 1), 
+                                departure(move.route1, i1 - 1));
+                        last = (end > j1) ? route1.get(end) : route1.get(i1 - 1);
+                        dep = visit(route1, i1, j1, last, dep);
+                        last = route1.get(j1);
+                    }
+                    return feasibleSuffix(move.route1, end + 1, last, dep);
+                }
+                
+                // route losing the segment
+                if (first) {
+                    return feasibleSuffix(move.route1, j1 + 1, route1.get(i1 - 1), 
+                            departure(move.route1, i1 - 1));
+                }
+                
+                // route receiving the segment
+                double load = routesLoads.get(move.route2);
+                for (int i = i1; i <= j1; i++) {
+                    load += demand[route1.get(i)];
+                }
+                if (load > capacity) {
+                    return false;
+                }
+                double dep = visit(route1, i1, j1, route2.get(i2), departure(move.route2, i2));
+                return feasibleSuffix(move.route2, i2 + 1, route1.get(j1), dep);
+            }
+            case Move.SWAP: {
+                int index = first ? move.route1 : move.route2;
+                int pos = first ? i1 : i2;
+                int out = first ? route1.get(i1) : route2.get(i2);
+                int in = first ? route2.get(i2) : route1.get(i1);
+                if (routesLoads.get(index) - demand[out] + demand[in] > capacity) {
+                    return false;
+                }
+                List<Integer> route = routes.get(index);
+                double dep = visit(route.get(pos - 1), in, departure(index, pos - 1));
+                return feasibleSuffix(index, pos + 1, in, dep);
+            }
+            case Move.TWO_OPT: {
+                double total1 = 0;
+                for (int i = 0; i <= i1; i++) {
+                    total1 += demand[route1.get(i)];
+                }
+                double total2 = 0;
+                for (int i = 0; i <= i2; i++) {
+                    total2 += demand[route2.get(i)];
+                }
+                if (first) {
+                    if (routesLoads.get(move.route2) - total2 + total1 > capacity) {
+                        return false;
+                    }
+                    return feasibleSuffix(move.route2, i2 + 1, route1.get(i1), 
+                            departure(move.route1, i1));
+                }
+                if (routesLoads.get(move.route1) - total1 + total2 > capacity) {
+                    return false;
+                }
+                return feasibleSuffix(move.route1, i1 + 1, route2.get(i2), 
+                        departure(move.route2, i2));
+            }
+            case Move.CROSS: {
+                if (first) {
+                    return feasibleExchange(move.route1, i1, j1, move.route2, i2, j2);
+                }
+                return feasibleExchange(move.route2, i2, j2, move.route1, i1, j1);
+            }
+            case Move.OR_OPT: {
+                double dep = visit(route1, j1 + 1, j2, route1.get(i1), departure(move.route1, i1));
+                dep = visit(route1, i1 + 1, j1, route1.get(j2), dep);
+                return feasibleSuffix(move.route1, j2 + 1, route1.get(j1), dep);
+            }
+            default:
+                throw new AssertionError("Unknown move " + move.type);
+        }
+    }
+    
+    // build the routes changed by move and update their values
+    private void apply(Move move) {
+        
+        List<Integer> route1 = routes.get(move.route1);
+        List<Integer> route2 = routes.get(move.route2);
+        int i1 = move.i1;
+        int j1 = move.j1;
+        int i2 = move.i2;
+        int j2 = move.j2;
+        switch (move.type) {
+            case Move.RELOCATE: {
+                int len = j1 - i1 + 1;
+                if (move.route1 != move.route2) {
+                    List<Integer> segment = route1.subList(i1, j1 + 1);
+                    route2.addAll(i2 + 1, segment);
+                    segment.clear();
+                } else if (i2 < i1) {
+                    Collections.rotate(route1.subList(i2 + 1, j1 + 1), len);
+                } else {
+                    Collections.rotate(route1.subList(i1, i2 + len + 1), -len);
+                }
+                break;
+            }
+            case Move.SWAP: {
+                int a = route1.get(i1);
+                route1.set(i1, route2.get(i2));
+                route2.set(i2, a);
+                break;
+            }
+            case Move.TWO_OPT: {
+                List<Integer> tail1 = route1.subList(i1 + 1, route1.size());
+                List<Integer> tail2 = route2.subList(i2 + 1, route2.size());
+                List<Integer> tmp = new ArrayList<>(tail1);
+                tail1.clear();
+                tail1.addAll(tail2);
+                tail2.clear();
+                tail2.addAll(tmp);
+                break;
+            }
+            case Move.CROSS: {
+                List<Integer> segment1 = route1.subList(i1 + 1, j1 + 1);
+                List<Integer> segment2 = route2.subList(i2 + 1, j2 + 1);
+                List<Integer> tmp = new ArrayList<>(segment1);
+                segment1.clear();
+                segment1.addAll(segment2);
+                segment2.clear();
+                segment2.addAll(tmp);
+                break;
+            }
+            case Move.OR_OPT: {
+                Collections.rotate(route1.subList(i1 + 1, j2 + 1), i1 - j1);
+                break;
+            }
+            default:
+                throw new AssertionError("Unknown move " + move.type);
+        }
+        
+        // update values
+        updateRoute(move.route1);
+        if (move.route2 != move.route1) {
+            updateRoute(move.route2);
+        }
+    }
+    
     void crossExchange(int len) {
         
+        if (parallelScan) {
+            boolean[] close = closeRoutes();
+            parallelScan((index1, index2) -> bestCross(index1, index2, len, close));
+            return;
+        }
+        
         // check routes randomly
         List<Integer> indexes = getRandomIndexes();
+        boolean[] close = closeRoutes();
         for (int i = 0; i < indexes.size(); i++) {
-            crossExchange(indexes.get(i), len);
+            crossExchange(indexes.get(i), len, close);
         }
         
         updateSolution();
@@ -828,13 +1505,13 @@ public class Solution {
                         tmp.add(route.get(k));
                         
                         // check time window
-                        arrival += times.get(route.get(k - 1), route.get(k));
-                        if (windows.get(route.get(k))[0] > arrival) {
-                            arrival = windows.get(route.get(k))[0];
+                        arrival += distance(route.get(k - 1), route.get(k));
+                        if (early[route.get(k)] > arrival) {
+                            arrival = early[route.get(k)];
                         }
                         
                         // break 
-                        if (windows.get(route.get(k))[1] < arrival) {
+                        if (late[route.get(k)] < arrival) {
                             nextNode = true;
                             break;
                         }
@@ -842,10 +1519,10 @@ public class Solution {
                     tmp.addAll(route.subList(j + 1, route.size()));
 
                     // if better and feasible, keep it
-                    double org = times.get(route.get(i - 1), route.get(i)) 
-                            + times.get(route.get(j), route.get(j + 1));
-                    double change = times.get(route.get(i - 1), route.get(j)) 
-                            + times.get(route.get(i), route.get(j + 1));
+                    double org = distance(route.get(i - 1), route.get(i)) 
+                            + distance(route.get(j), route.get(j + 1));
+                    double change = distance(route.get(i - 1), route.get(j)) 
+                            + distance(route.get(i), route.get(j + 1));
                     double diff = org - change;
                     if (diff > 0 && !nextNode) {
                         
@@ -882,39 +1559,24 @@ public class Solution {
         // get route 
         List<Integer> route = routes.get(index);
         
-        // check number of nodes
-        if (route.size() < 6) {
+        // check number of nodes and load
+        if (route.size() < 6 || routesLoads.get(index) > capacity) {
             return;
         }
         
         // all nodes
+        Move move = new Move();
         for (int i = 1; i < route.size() - 4; i++) {
-            Integer n1 = route.get(i);
-            Integer n2 = route.get(i + 1);
             for (int j = i + 1; j < route.size() - 3; j++) {
-                Integer n3 = route.get(j);
-                Integer n4 = route.get(j + 1);
                 for (int k = j + 1; k < route.size() - 2; k++) {
-                    Integer n5 = route.get(k);
-                    Integer n6 = route.get(k + 1);
                     
-                    // compute diff
-                    double org = times.get(n1, n2) +  times.get(n3, n4) + times.get(n5, n6);
-                    double change = times.get(n1, n4) + times.get(n5, n2) + times.get(n3, n6);
-                    if (org - change <= 0) {
+                    // swap segments i + 1..j and j + 1..k
+                    move.set(Move.OR_OPT, index, i, j, index, k, k);
+                    if (delta(move) >= 0) {
                         continue;
                     }
-                    
-                    // new route
-                    List<Integer> tmp = new ArrayList<>(route.subList(0, i + 1));
-                    tmp.addAll(route.subList(j + 1, k + 1));
-                    tmp.addAll(route.subList(i + 1, j + 1));
-                    tmp.addAll(route.subList(k + 1, route.size()));
-                    if (feasible(tmp)) {
-                        
-                        // update route
-                        routes.set(index, tmp);
-                        updateRoute(index);
+                    if (feasible(move)) {
+                        apply(move);
                         return;
                     }
                 }
@@ -923,16 +1585,13 @@ public class Solution {
     }
     
     // interchange two nodes within two given routes
-    private void searchInterchange(int index1, int index2) {
+    private void searchInterchange(int index1, int index2, boolean[] close) {
         
         // less than 1 route, return
         if (routes.size() < 2) {
             return;
         }
         
-        // info 
-        double capacity = param.getCapacity();
-        
         // get the two routes 
         List<Integer> route1 = routes.get(index1);
         List<Integer> route2 = routes.get(index2);
@@ -946,56 +1605,36 @@ public class Solution {
         }
 
         // all combinatios of i and j
+        Move move = new Move();
         for (int i = 1; i < len1 - 1; i++) {
             for (int j = 1; j < len2 - 1; j++) {
                 
                 // check load 
-                double load1 = routesLoads.get(index1) - demand.get(route1.get(i)) 
-                        + demand.get(route2.get(j));
-                double load2 = routesLoads.get(index2) - demand.get(route2.get(j)) 
-                        + demand.get(route1.get(i));
+                double load1 = routesLoads.get(index1) - demand[route1.get(i)] 
+                        + demand[route2.get(j)];
+                double load2 = routesLoads.get(index2) - demand[route2.get(j)] 
+                        + demand[route1.get(i)];
                 if (load1 > capacity || load2 > capacity) {
                     continue;
                 }
                 
                 // check times
                 double time1 = routesTimes.get(index1).get(i - 1)[2] 
-                        + times.get(route1.get(i - 1), route2.get(j));
+                        + distance(route1.get(i - 1), route2.get(j));
                 double time2 = routesTimes.get(index2).get(j - 1)[2] 
-                        + times.get(route2.get(j - 1), route1.get(i));
-                if (time1 > windows.get(route2.get(j))[1] 
-                        || time2 > windows.get(route1.get(i))[1]) {
+                        + distance(route2.get(j - 1), route1.get(i));
+                if (time1 > late[route2.get(j)] 
+                        || time2 > late[route1.get(i)]) {
                     continue;
                 }
 
-                // exchange nodes 
-                List<Integer> tmp1 = new ArrayList<>(route1);
-                tmp1.set(i, route2.get(j));
-                List<Integer> tmp2 = new ArrayList<>(route2);
-                tmp2.set(j, route1.get(i));
-
-                // if total cost is less than best and both feasible, then keep them
-                double org = times.get(route1.get(i - 1), route1.get(i)) 
-                        + times.get(route1.get(i), route1.get(i + 1))
-                        + times.get(route2.get(j - 1), route2.get(j)) 
-                        + times.get(route2.get(j), route2.get(j + 1));
-                double change = times.get(route1.get(i - 1), route2.get(j)) 
-                        + times.get(route2.get(j), route1.get(i + 1))
-                        + times.get(route2.get(j - 1), route1.get(i)) 
-                        + times.get(route1.get(i), route2.get(j + 1));
-                double diff = org - change;
-                if (diff > 0) {
-                    
-                    // new solution
-                    if ((!feas1 || feasible(tmp1)) && (!feas2 || feasible(tmp2))) {
-                        
-                        // update
-                        routes.set(index1, tmp1);
-                        routes.set(index2, tmp2);
-                        updateRoute(index1);
-                        updateRoute(index2);
-                        route1 = new ArrayList<>(tmp1);
-                        route2 = new ArrayList<>(tmp2);
+                // if total cost is less than best and both feasible, then exchange nodes
+                move.set(Move.SWAP, index1, i, i, index2, j, j);
+                if (granular(move) && delta(move) < 0) {
+                    if ((!feas1 || feasible(move, true)) && (!feas2 || feasible(move, false))) {
+                        apply(move);
+                        updateClose(close, index1);
+                        updateClose(close, index2);
                         feas1 = feasibleRoutes.get(index1);
                         feas2 = feasibleRoutes.get(index2);
                     }
@@ -1004,12 +1643,75 @@ public class Solution {
         }
     }
     
+    // best interchange of two nodes within two given routes, null if none
+    private Move bestInterchange(int index1, int index2) {
+        
+        // get the two routes 
+        List<Integer> route1 = routes.get(index1);
+        List<Integer> route2 = routes.get(index2);
+        int len1 = route1.size();
+        int len2 = route2.size();
+        boolean feas1 = feasibleRoutes.get(index1);
+        boolean feas2 = feasibleRoutes.get(index2);
+        if (len1 < 3 || len2 < 3) {
+            return null;
+        }
+        
+        // all combinatios of i and j
+        Move best = null;
+        Move move = new Move();
+        for (int i = 1; i < len1 - 1; i++) {
+            for (int j = 1; j < len2 - 1; j++) {
+                
+                // check load 
+                double load1 = routesLoads.get(index1) - demand[route1.get(i)] 
+                        + demand[route2.get(j)];
+                double load2 = routesLoads.get(index2) - demand[route2.get(j)] 
+                        + demand[route1.get(i)];
+                if (load1 > capacity || load2 > capacity) {
+                    continue;
+                }
+                
+                // check times
+                double time1 = routesTimes.get(index1).get(i - 1)[2] 
+                        + distance(route1.get(i - 1), route2.get(j));
+                double time2 = routesTimes.get(index2).get(j - 1)[2] 
+                        + distance(route2.get(j - 1), route1.get(i));
+                if (time1 > late[route2.get(j)] 
+                        || time2 > late[route1.get(i)]) {
+                    continue;
+                }
+                
+                // keep the cheapest improving exchange
+                move.set(Move.SWAP, index1, i, i, index2, j, j);
+                if (granular(move) && delta(move) < 0 
+                        && (best == null || move.deltaCost < best.deltaCost)) {
+                    if ((!feas1 || feasible(move, true)) && (!feas2 || feasible(move, false))) {
+                        best = move.copy();
+                    }
+                }
+            }
+        }
+        
+        return best;
+    }
+    
     void searchInterchange() {
         
+        if (parallelScan) {
+            boolean[] close = closeRoutes();
+            parallelScan((index1, index2) -> close(close, index1, index2) 
+                    ? bestInterchange(index1, index2) : null);
+            return;
+        }
+        
         List<Integer> indexes = getRandomIndexes();
+        boolean[] close = closeRoutes();
         for (int i = 0; i < indexes.size(); i++) {
             for (int j = i + 1; j < indexes.size(); j++) {
-                searchInterchange(indexes.get(i), indexes.get(j));
+                if (close(close, indexes.get(i), indexes.get(j))) {
+                    searchInterchange(indexes.get(i), indexes.get(j), close);
+                }
             }
         }
         
@@ -1018,20 +1720,27 @@ public class Solution {
     
     void pathRelocation() {
         
+        if (parallelScan) {
+            boolean[] close = closeRoutes();
+            parallelScan((index1, index2) -> close(close, index1, index2) 
+                    ? bestRelocation(index1, index2) : null);
+            return;
+        }
+        
         List<Integer> indexes = getRandomIndexes();
+        boolean[] close = closeRoutes();
         for (int i = 0; i < indexes.size(); i++) {
             for (int j = i + 1; j < indexes.size(); j++) {
-                pathRelocation(indexes.get(i), indexes.get(j));
+                if (close(close, indexes.get(i), indexes.get(j))) {
+                    pathRelocation(indexes.get(i), indexes.get(j), close);
+                }
             }
         }
         
         updateSolution();
     }
     
-    private void pathRelocation(int index1, int index2) {
-        
-        // info 
-        double capacity = param.getCapacity();
+    private void pathRelocation(int index1, int index2, boolean[] close) {
         
         // get the two routes 
         List<Integer> route1 = routes.get(index1);
@@ -1044,51 +1753,31 @@ public class Solution {
         }
         
         // all combinatios of i and j
+        Move move = new Move();
         for (int i = 1; i < route1.size() - 2; i++) {
             for (int j = i + 1; j < route1.size() - 1; j++) {
                 
                 // check load 
                 double load = 0;
                 for (int l = i + 1; l < j + 1; l++) {
-                    load += demand.get(route1.get(l));
+                    load += demand[route1.get(l)];
                 }
                 if (load + load2 > capacity) {
                     break;
                 }
                 
-                // nodes route 1
-                Integer n1 = route1.get(i);
-                Integer n2 = route1.get(i + 1);
-                Integer n3 = route1.get(j);
-                Integer n4 = route1.get(j + 1);
-                
                 // check all positions in route2 
                 for (int k = 1; k < route2.size() - 1; k++) {
                     
-                    // nodes route 2
-                    Integer n5 = route2.get(k);
-                    Integer n6 = route2.get(k + 1);
-                    
-                    // compute diff
-                    double org = times.get(n1, n2) + times.get(n3, n4) + times.get(n5, n6);
-                    double change = times.get(n1, n4) + times.get(n5, n2) + times.get(n3, n6);
-                    if (org - change <= 0) {
+                    // insert path i + 1..j after position k
+                    move.set(Move.RELOCATE, index1, i + 1, j, index2, k, k);
+                    if (!granular(move) || delta(move) >= 0) {
                         continue;
                     }
-                    
-                    // new routes
-                    List<Integer> tmp1 = new ArrayList<>(route1.subList(0, i + 1));
-                    tmp1.addAll(route1.subList(j + 1, route1.size()));
-                    List<Integer> tmp2 = new ArrayList<>(route2.subList(0, k + 1));
-                    tmp2.addAll(route1.subList(i + 1, j + 1));
-                    tmp2.addAll(route2.subList(k + 1, route2.size()));
-                    if (feasible(tmp2)) {
-                        
-                        // update
-                        routes.set(index1, tmp1);
-                        routes.set(index2, tmp2);
-                        updateRoute(index1);
-                        updateRoute(index2);
+                    if (feasible(move, false)) {
+                        apply(move);
+                        updateClose(close, index1);
+                        updateClose(close, index2);
                         return;
                     }
                 }
@@ -1096,28 +1785,133 @@ public class Solution {
         }
     }
     
+    // best relocation of a path of route index1 into route index2, null if none
+    private Move bestRelocation(int index1, int index2) {
+        
+        // get the two routes 
+        List<Integer> route1 = routes.get(index1);
+        List<Integer> route2 = routes.get(index2);
+        double load2 = routesLoads.get(index2);
+        if (route1.size() < 3 || route2.size() < 3) {
+            return null;
+        }
+        
+        // all combinatios of i and j
+        Move best = null;
+        Move move = new Move();
+        for (int i = 1; i < route1.size() - 2; i++) {
+            for (int j = i + 1; j < route1.size() - 1; j++) {
+                
+                // check load 
+                double load = 0;
+                for (int l = i + 1; l < j + 1; l++) {
+                    load += demand[route1.get(l)];
+                }
+                if (load + load2 > capacity) {
+                    break;
+                }
+                
+                // check all positions in route2, keeping the cheapest improving one
+                for (int k = 1; k < route2.size() - 1; k++) {
+                    move.set(Move.RELOCATE, index1, i + 1, j, index2, k, k);
+                    if (!granular(move) || delta(move) >= 0 
+                            || (best != null && move.deltaCost >= best.deltaCost)) {
+                        continue;
+                    }
+                    if (feasible(move, false)) {
+                        best = move.copy();
+                    }
+                }
+            }
+        }
+        
+        return best;
+    }
+    
     void search2OptInter() {
         
+        if (parallelScan) {
+            boolean[] close = closeRoutes();
+            parallelScan((index1, index2) -> close(close, index1, index2) 
+                    ? best2OptInter(index1, index2) : null);
+            return;
+        }
+        
         List<Integer> indexes = getRandomIndexes();
+        boolean[] close = closeRoutes();
         for (int i = 0; i < indexes.size(); i++) {
             for (int j = i + 1; j < indexes.size(); j++) {
-                search2OptInter(indexes.get(i), indexes.get(j));
+                if (close(close, indexes.get(i), indexes.get(j))) {
+                    search2OptInter(indexes.get(i), indexes.get(j), close);
+                }
             }
         }
         
         updateSolution();
     }
     
-    private void search2OptInter(int index1, int index2) {
+    // best exchange of the tails of two given routes, null if none
+    private Move best2OptInter(int index1, int index2) {
+        
+        // get the two routes 
+        List<Integer> route1 = routes.get(index1);
+        List<Integer> route2 = routes.get(index2);
+        boolean feas1 = feasibleRoutes.get(index1);
+        boolean feas2 = feasibleRoutes.get(index2);
+        if (route1.size() < 3 || route2.size() < 3) {
+            return null;
+        }
+        
+        // all combinatios of i and j
+        Move best = null;
+        Move move = new Move();
+        double total1 = 0;
+        for (int i = 0; i < route1.size() - 1; i++) {
+            
+            // keep track of volume
+            total1 += demand[route1.get(i)];
+            double total2 = 0;
+            for (int j = 0; j < route2.size() - 1; j++) {
+                
+                // check load 
+                total2 += demand[route2.get(j)];
+                double load1 = routesLoads.get(index2) - total2 + total1;
+                double load2 = routesLoads.get(index1) - total1 + total2;
+                if (load1 > capacity || load2 > capacity) {
+                    continue;
+                }
+                
+                // check times
+                double time1 = routesTimes.get(index1).get(i)[2] 
+                        + distance(route1.get(i), route2.get(j + 1));
+                double time2 = routesTimes.get(index2).get(j)[2] 
+                        + distance(route2.get(j), route1.get(i + 1));
+                if (time1 > late[route2.get(j + 1)] 
+                        || time2 > late[route1.get(i + 1)]) {
+                    continue;
+                }
+                
+                // keep the cheapest improving exchange
+                move.set(Move.TWO_OPT, index1, i, i, index2, j, j);
+                if (granular(move) && delta(move) < 0 
+                        && (best == null || move.deltaCost < best.deltaCost)) {
+                    if ((!feas1 || feasible(move, true)) && (!feas2 || feasible(move, false))) {
+                        best = move.copy();
+                    }
+                }
+            }
+        }
+        
+        return best;
+    }
+    
+    private void search2OptInter(int index1, int index2, boolean[] close) {
         
         // less than 1 route, return
         if (routes.size() < 2) {
             return;
         }
         
-        // info 
-        double capacity = param.getCapacity();
-        
         // get the two routes 
         List<Integer> route1 = routes.get(index1);
         List<Integer> route2 = routes.get(index2);
@@ -1129,16 +1923,17 @@ public class Solution {
         }
 
         // all combinatios of i and j
+        Move move = new Move();
         double total1 = 0;
         for (int i = 0; i < route1.size() - 1; i++) {
             
             // keep track of volume
-            total1 += demand.get(route1.get(i));
+            total1 += demand[route1.get(i)];
             double total2 = 0;
             for (int j = 0; j < route2.size() - 1; j++) {
                 
                 // check load 
-                total2 += demand.get(route2.get(j));
+                total2 += demand[route2.get(j)];
                 double load1 = routesLoads.get(index2) - total2 + total1;
                 double load2 = routesLoads.get(index1) - total1 + total2;
                 if (load1 > capacity || load2 > capacity) {
@@ -1147,38 +1942,21 @@ public class Solution {
                 
                 // check times
                 double time1 = routesTimes.get(index1).get(i)[2] 
-                        + times.get(route1.get(i), route2.get(j + 1));
+                        + distance(route1.get(i), route2.get(j + 1));
                 double time2 = routesTimes.get(index2).get(j)[2] 
-                        + times.get(route2.get(j), route1.get(i + 1));
-                if (time1 > windows.get(route2.get(j + 1))[1] 
-                        || time2 > windows.get(route1.get(i + 1))[1]) {
+                        + distance(route2.get(j), route1.get(i + 1));
+                if (time1 > late[route2.get(j + 1)] 
+                        || time2 > late[route1.get(i + 1)]) {
                     continue;
                 }
 
-                // exchange nodes 
-                List<Integer> tmp1 = new ArrayList<>(route1.subList(0, i + 1));
-                tmp1.addAll(route2.subList(j + 1, route2.size()));
-                List<Integer> tmp2 = new ArrayList<>(route2.subList(0, j + 1));
-                tmp2.addAll(route1.subList(i + 1, route1.size()));
-
-                // if total cost is less than best and both feasible, then keep them
-                double org = times.get(route1.get(i), route1.get(i + 1)) 
-                        + times.get(route2.get(j), route2.get(j + 1));
-                double change = times.get(route1.get(i), route2.get(j + 1)) 
-                        + times.get(route2.get(j), route1.get(i + 1));
-                double diff = org - change;
-                if (diff > 0) {
-                    
-                    // new solution
-                    if ((!feas1 || feasible(tmp1)) && (!feas2 || feasible(tmp2))) {
-                        
-                        // update
-                        routes.set(index1, tmp1);
-                        routes.set(index2, tmp2);
-                        updateRoute(index1);
-                        updateRoute(index2);
-                        route1 = new ArrayList<>(tmp1);
-                        route2 = new ArrayList<>(tmp2);
+                // if total cost is less than best and both feasible, then exchange tails
+                move.set(Move.TWO_OPT, index1, i, i, index2, j, j);
+                if (granular(move) && delta(move) < 0) {
+                    if ((!feas1 || feasible(move, true)) && (!feas2 || feasible(move, false))) {
+                        apply(move);
+                        updateClose(close, index1);
+                        updateClose(close, index2);
                         feas1 = feasibleRoutes.get(index1);
                         feas2 = feasibleRoutes.get(index2);
                     }
@@ -1187,40 +1965,33 @@ public class Solution {
         }
     }
     
-    LinkedHashMap<Integer, Double> relatednessMeasure(int node) {
+    Ranking relatednessMeasure(int node) {
         
         // measure parameters
         double phi = 9.0;
         double xi = 3.0;
         double psi = 2.0;
         
-        // map with values
-        Map<Integer, Double> values = new HashMap<>();
-        Map<Integer, Double> arrival = new HashMap<>();
         
         // find route
-        List<Integer> route = new ArrayList<>();
-        for (int i = 0; i < routes.size(); i++) {
-            if (routes.get(i).contains(node)) {
-                route = routes.get(i);
-            }
-        }
-        if (route.isEmpty()) {
+        int ind = findRoute(node);
+        if (ind < 0) {
             return null;
         }
+        List<Integer> route = routes.get(ind);
         
         // compute time 
         int last = route.get(0);
-        double time = service.get(last);
+        double time = service[last];
         for (int i = 0; i < route.size(); i++) {
             
             // consider the arrival time to check time window
             int nd = route.get(i);
-            time += times.get(last, nd);
+            time += distance(last, nd);
             
             // wait if too early
-            if (windows.get(nd)[0] > time) {
-                time = windows.get(nd)[0];
+            if (early[nd] > time) {
+                time = early[nd];
             }
             
             // compute time upto node
@@ -1229,51 +2000,37 @@ public class Solution {
             }
             
             // finally sum service time
-            time += service.get(nd);
+            time += service[nd];
             last = nd;
         }
         
-        // compute time distance for all nodes
+        // time distance for all nodes, start times are kept with the routes
+        Ranking relate = new Ranking(size, false);
         for (int i = 0; i < routes.size(); i++) {
-            
-            // compute time 
             route = routes.get(i);
-            last = route.get(0);
-            double arr = service.get(last);
+            List<Double[]> locTimes = routesTimes.get(i);
             for (int j = 1; j < route.size() - 1; j++) {
-
-                // consider the arrival time to check time window
-                Integer nd = route.get(j);
-                arr += times.get(last, nd);
-
-                // wait if too early
-                if (windows.get(nd)[0] > arr) {
-                    arr = windows.get(nd)[0];
-                }
-                
-                // include value for node
-                arrival.put(nd, Math.abs(arr - time));
-
-                // finally sum service time
-                arr += service.get(nd);
-                last = nd;
+                relate.add(route.get(j), Math.abs(locTimes.get(j)[1] - time));
             }
         }
         
         // normalize values
-        double maxDistance = Collections.max(times.row(node).values());
-        double maxArrival = Collections.max(arrival.values());
+        double maxArrival = 0;
+        for (int i = 0; i < relate.size(); i++) {
+            maxArrival = Math.max(maxArrival, relate.value(relate.get(i)));
+        }
         
         // compute values
-        for (Integer nd : arrival.keySet()) {
-            double value = phi * times.get(node, nd) / maxDistance 
-                    + xi * arrival.get(nd) / maxArrival 
-                    + psi * Math.abs(demand.get(nd) - demand.get(node));
-            values.put(nd, value);
+        for (int i = 0; i < relate.size(); i++) {
+            int nd = relate.get(i);
+            double value = phi * distance(node, nd) / maxDistance[node] 
+                    + xi * relate.value(nd) / maxArrival 
+                    + psi * Math.abs(demand[nd] - demand[node]);
+            relate.add(nd, value);
         }
         
         // sort values
-        LinkedHashMap<Integer, Double> relate = sortMap(values, false);
+        relate.sort();
         
         return relate;
     }
@@ -1281,28 +2038,27 @@ public class Solution {
     Set<Integer> shawRemoval() {
         
         // nodes
-        List<Integer> nodes = new ArrayList<>(param.getNodes());
-        nodes.remove((Integer) depot);
+        int[] nodes = customers;
         
         // parameters
         int p = 6;
-        int limit = (int) Math.round(nodes.size() * 0.4);
+        int limit = (int) Math.round(nodes.length * 0.4);
         int q = 4 + rand.nextInt(Math.min(97, limit + 1));
         
         // random request
-        int index = rand.nextInt(nodes.size());
-        Integer node = nodes.get(index);
+        int index = rand.nextInt(nodes.length);
+        Integer node = nodes[index];
         
         // list of nodes to remove
         List<Integer> remove = new ArrayList<>();
         remove.add(node);
-        Map<Integer, LinkedHashMap<Integer, Double>> values = new HashMap<>();
+        Map<Integer, Ranking> values = new HashMap<>();
         while (remove.size() < q) {
             index = rand.nextInt(remove.size());
             node = remove.get(index);
             
             // create list if it not in the map
-            LinkedHashMap<Integer, Double> map;
+            Ranking map;
             if (values.containsKey(node)) {
                 map = values.get(node);
             } else {
@@ -1317,30 +2073,16 @@ public class Solution {
             
             // sample position
             double y = rand.nextDouble();
-            Integer pos = (int) Math.round(map.size() * Math.pow(y, p));
+            int pos = (int) Math.round(map.size() * Math.pow(y, p));
             pos = pos > 0 ? pos - 1 : 0;
-            List<Integer> list = new ArrayList<>(map.keySet());
-            remove.add(list.get(pos));
+            remove.add(map.get(pos));
         }
         
         // remove all nodes in the list
         for (Integer nd : remove) {
             
-            // find route
-            List<Integer> route = new ArrayList<>();
-            int ind = -1;
-            for (int i = 0; i < routes.size(); i++) {
-                List<Integer> tmp = new ArrayList<>(routes.get(i));
-                if (tmp.contains(nd)) {
-                    tmp.remove(nd);
-                    route = new ArrayList<>(tmp);
-                    ind = i;
-                    break;
-                }
-            }
-            
-            // set route
-            routes.set(ind, route);
+            // remove from its route
+            int ind = removeNode(nd);
             updateRoute(ind);
         }
         
@@ -1350,11 +2092,10 @@ public class Solution {
     Set<Integer> randomRemoval() {
         
         // nodes
-        List<Integer> nodes = new ArrayList<>(param.getNodes());
-        nodes.remove((Integer) depot);
+        int[] nodes = customers;
         
         // parameters
-        int total = nodes.size();
+        int total = nodes.length;
         int limit = (int) Math.round(total * 0.4);
         int q = 4 + rand.nextInt(Math.min(97, limit + 1));
         
@@ -1364,27 +2105,14 @@ public class Solution {
             
             // random request
             int index = rand.nextInt(total);
-            remove.add(nodes.get(index));
+            remove.add(nodes[index]);
         }
         
         // remove all nodes in the list
         for (Integer nd : remove) {
             
-            // find route
-            List<Integer> route = new ArrayList<>();
-            int ind = -1;
-            for (int i = 0; i < routes.size(); i++) {
-                List<Integer> tmp = new ArrayList<>(routes.get(i));
-                if (tmp.contains(nd)) {
-                    tmp.remove(nd);
-                    route = new ArrayList<>(tmp);
-                    ind = i;
-                    break;
-                }
-            }
-            
-            // set route
-            routes.set(ind, route);
+            // remove from its route
+            int ind = removeNode(nd);
             updateRoute(ind);
         }
         
@@ -1394,30 +2122,27 @@ public class Solution {
     Set<Integer> worstRemoval() {
         
         // nodes
-        List<Integer> nodes = new ArrayList<>(param.getNodes());
-        nodes.remove((Integer) depot);
+        int[] nodes = customers;
         
         // parameters
         int p = 6;
-        int limit = (int) Math.round(nodes.size() * 0.4);
+        int limit = (int) Math.round(nodes.length * 0.4);
         int q = 4 + rand.nextInt(Math.min(97, limit + 1));
         
         // compute values
-        Map<Integer, Integer> relation = new HashMap<>();
-        Map<Integer, Double> values = new LinkedHashMap<>();
+        Ranking values = new Ranking(size, true);
         for (int i = 0; i < routes.size(); i++) {
             List<Integer> route = routes.get(i);
             for (int j = 1; j < route.size() - 1; j++) {
-                Integer node = route.get(j);
-                Integer n1 = route.get(j - 1);
-                Integer n2 = route.get(j + 1);
-                values.put(node, times.get(n1, node) + times.get(node, n2) - times.get(n1, n2));
-                relation.put(node, i);
+                int node = route.get(j);
+                int n1 = route.get(j - 1);
+                int n2 = route.get(j + 1);
+                values.add(node, distance(n1, node) + distance(node, n2) - distance(n1, n2));
             }
         }
         
-        // sort map
-        values = sortMap(values, true);
+        // sort values
+        values.sort();
         
         // list of nodes to remove
         List<Integer> remove = new ArrayList<>();
@@ -1425,28 +2150,24 @@ public class Solution {
             
             // sample position
             double y = rand.nextDouble();
-            Integer pos = (int) Math.round(values.size() * Math.pow(y, p));
+            int pos = (int) Math.round(values.size() * Math.pow(y, p));
             pos = pos > 0 ? pos - 1 : 0;
-            List<Integer> tmp = new ArrayList<>(values.keySet());
-            Integer node = tmp.get(pos);
+            int node = values.get(pos);
             remove.add(node);
             
             // remove node from route
-            int index = relation.get(node);
+            int index = removeNode(node);
             List<Integer> route = routes.get(index);
-            route.remove(node);
-            routes.set(index, route);
             updateRoute(index);
             
-            // update map
+            // update values of the route
             values.remove(node);
             for (int i = 1; i < route.size() - 1; i++) {
-                Integer nd = route.get(i);
-                Integer n1 = route.get(i - 1);
-                Integer n2 = route.get(i + 1);
-                values.put(nd, times.get(n1, nd) + times.get(nd, n2) - times.get(n1, n2));
+                int nd = route.get(i);
+                int n1 = route.get(i - 1);
+                int n2 = route.get(i + 1);
+                values.put(nd, distance(n1, nd) + distance(nd, n2) - distance(n1, n2));
             }
-            values = sortMap(values, true);
         }
         
         return new HashSet<>(remove);
@@ -1518,7 +2239,7 @@ public class Solution {
                     List<Integer> tmp = routes.get(k);
                     double value = 0;
                     for (int l = 1; l < tmp.size() - 1; l++) {
-                        value += times.get(tmp.get(l), node);
+                        value += distance(tmp.get(l), node);
                     }
                     value = value / tmp.size();
                     if (value < center) {
@@ -1561,31 +2282,30 @@ public class Solution {
     Set<Integer> windowRemoval() {
         
         // nodes
-        List<Integer> nodes = new ArrayList<>(param.getNodes());
-        nodes.remove((Integer) depot);
+        int[] nodes = customers;
         
         // parameters
         int p = 6;
-        int total = nodes.size();
+        int total = nodes.length;
         int limit = (int) Math.round(total * 0.4);
         int q = 4 + rand.nextInt(Math.min(97, limit + 1));
         
         // compute diff with window 
-        Map<Integer, Double> values = new HashMap<>();
+        Ranking diff = new Ranking(size, true);
         for (int i = 0; i < routes.size(); i++) {
             List<Integer> route = routes.get(i);
             for (int j = 1; j < route.size() - 1; j++) {
-                Integer node = route.get(j);
+                int node = route.get(j);
                 Double[] vector = routesTimes.get(i).get(j);
                 double value = vector[1] - vector[0];
                 if (value > 0) {
-                    values.put(node, value);
+                    diff.add(node, value);
                 }
             }
         }
         
         // sort values
-        LinkedHashMap<Integer, Double> diff = sortMap(values, true);
+        diff.sort();
         
         // list of nodes to remove
         Set<Integer> remove = new HashSet<>();
@@ -1593,30 +2313,16 @@ public class Solution {
             
             // sample position
             double y = rand.nextDouble();
-            Integer pos = (int) Math.round(diff.size() * Math.pow(y, p));
+            int pos = (int) Math.round(diff.size() * Math.pow(y, p));
             pos = pos > 0 ? pos - 1 : 0;
-            List<Integer> tmp = new ArrayList<>(diff.keySet());
-            remove.add(tmp.get(pos));
+            remove.add(diff.get(pos));
         }
         
         // remove all nodes in the list
         for (Integer nd : remove) {
             
-            // find route
-            List<Integer> route = new ArrayList<>();
-            int ind = -1;
-            for (int i = 0; i < routes.size(); i++) {
-                List<Integer> tmp = new ArrayList<>(routes.get(i));
-                if (tmp.contains(nd)) {
-                    tmp.remove(nd);
-                    route = new ArrayList<>(tmp);
-                    ind = i;
-                    break;
-                }
-            }
-            
-            // set route
-            routes.set(ind, route);
+            // remove from its route
+            removeNode(nd);
         }
         
         updateSolution();
@@ -1626,34 +2332,29 @@ public class Solution {
     Set<Integer> timeRadialRuin(double div) {
         
         // pick a request at random
-        List<Integer> nodes = new ArrayList<>(param.getNodes());
-        nodes.remove((Integer) depot);
-        int index = rand.nextInt(nodes.size());
-        Integer node = nodes.get(index);
+        int[] nodes = customers;
+        int index = rand.nextInt(nodes.length);
+        Integer node = nodes[index];
         
         // find route
-        List<Integer> route = new ArrayList<>();
-        for (int i = 0; i < routes.size(); i++) {
-            if (routes.get(i).contains(node)) {
-                route = routes.get(i);
-            }
-        }
-        if (route.isEmpty()) {
+        int first = findRoute(node);
+        if (first < 0) {
             return new HashSet<>();
         }
+        List<Integer> route = routes.get(first);
         
         // compute time 
         int last = route.get(0);
-        double time = service.get(last);
+        double time = service[last];
         for (int i = 0; i < route.size(); i++) {
             
             // consider the arrival time to check time window
             int nd = route.get(i);
-            time += times.get(last, nd);
+            time += distance(last, nd);
             
             // wait if too early
-            if (windows.get(nd)[0] > time) {
-                time = windows.get(nd)[0];
+            if (early[nd] > time) {
+                time = early[nd];
             }
             
             // compute time upto node
@@ -1662,12 +2363,12 @@ public class Solution {
             }
             
             // finally sum service time
-            time += service.get(nd);
+            time += service[nd];
             last = nd;
         }
         
         // threshold
-        double limit = windows.get(depot)[1] / div;
+        double limit = late[depot] / div;
         double[] limits = new double[] {time - limit, time + limit};
         
         // find all nodes within the proximity
@@ -1681,16 +2382,16 @@ public class Solution {
             // compute time 
             route = routes.get(i);
             last = route.get(0);
-            time = service.get(last);
+            time = service[last];
             for (int j = 1; j < route.size() - 1; j++) {
 
                 // consider the arrival time to check time window
                 Integer nd = route.get(j);
-                time += times.get(last, nd);
+                time += distance(last, nd);
 
                 // wait if too early
-                if (windows.get(nd)[0] > time) {
-                    time = windows.get(nd)[0];
+                if (early[nd] > time) {
+                    time = early[nd];
                 }
                 
                 // check time
@@ -1703,7 +2404,7 @@ public class Solution {
                 }
 
                 // finally sum service time
-                time += service.get(nd);
+                time += service[nd];
                 last = nd;
             }
         }
@@ -1723,32 +2424,20 @@ public class Solution {
     Set<Integer> distanceRadialRuin(double div) {
         
         // pick a request at random
-        List<Integer> nodes = new ArrayList<>(param.getNodes());
-        nodes.remove((Integer) depot);
-        int index = rand.nextInt(nodes.size());
-        Integer node = nodes.get(index);
+        int[] nodes = customers;
+        int index = rand.nextInt(nodes.length);
+        Integer node = nodes[index];
         
         // find route
-        List<Integer> route = new ArrayList<>();
-        for (int i = 0; i < routes.size(); i++) {
-            if (routes.get(i).contains(node)) {
-                route = routes.get(i);
-            }
-        }
-        if (route.isEmpty()) {
+        if (findRoute(node) < 0) {
             return new HashSet<>();
         }
         
         // compute threshold
         double max = 0;
-        nodes.add(depot);
-        for (Integer n1 : nodes) {
-            for (Integer n2 : nodes) {
-                
-                double dist = times.get(n1, n2);
-                if (dist > max) {
-                    max = dist;
-                }
+        for (double dist : times) {
+            if (dist > max) {
+                max = dist;
             }
         }
         
@@ -1759,7 +2448,7 @@ public class Solution {
             List<Integer> tmp = new ArrayList<>(routes.get(i));
             for (int j = 1; j < tmp.size() - 1; j++) {
                 Integer nd = tmp.get(j);
-                double dist = times.get(node, nd);
+                double dist = distance(node, nd);
                 if (dist < limit) {
                     list.add(nd);
                 }
@@ -1768,35 +2457,40 @@ public class Solution {
         
         // remove nodes
         for (Integer nd : list) {
-            for (int i = 0; i < routes.size(); i++) {
-                List<Integer> tmp = routes.get(i);
-                if (tmp.contains(nd)) {
-                    tmp.remove(nd);
-                }
-            }
+            removeNode(nd);
         }
         
         return list;
     }
     
+    // check whether node can be inserted at position pos of route index
+    private boolean feasibleInsert(int index, int pos, int node) {
+        
+        // check load
+        if (routesLoads.get(index) + demand[node] > capacity) {
+            return false;
+        }
+        
+        // check time
+        List<Integer> route = routes.get(index);
+        double dep = visit(route.get(pos - 1), node, departure(index, pos - 1));
+        
+        return feasibleSuffix(index, pos, node, dep);
+    }
+    
     void greedyHeuristic(Set<Integer> list, boolean noise) {
         
         // noise interval
         double max = -1;
-        Set<Integer> nodes = param.getNodes();
-        for (Integer n1 : nodes) {
-            for (Integer n2 : nodes) {
-                double value = times.get(n1, n2);
-                if (value > max) {
-                    max = value;
-                }
+        for (double value : times) {
+            if (value > max) {
+                max = value;
             }
         }
         double plus = max * 0.025;
         
-        // tables
-        Table<Integer, Integer, Double> cost = HashBasedTable.create();
-        Table<Integer, Integer, Integer> locations = HashBasedTable.create();
+        // best insertion of each node in each route, new routes may be added
+        InsertionCache cost = new InsertionCache(list, size, routes.size() + list.size());
         
         // routes
         List<Integer> indexes = new ArrayList<>();
@@ -1808,6 +2502,9 @@ public class Solution {
             }
         }
         
+        // removal operators may leave routes without their values
+        updateRoutes();
+        
         // iterate until list is empty
         while (!list.isEmpty()) {
             
@@ -1819,13 +2516,11 @@ public class Solution {
             // check previous values
             for (Integer node : list) {
                 
-                Map<Integer, Double> row = cost.row(node);
-                for (Integer index : row.keySet()) {
-                    if (min > row.get(index)) {
-                        min = row.get(index);
-                        insert = node;
-                        location = index;
-                    }
+                int index = cost.cheapest(node);
+                if (index >= 0 && min > cost.cost(node, index)) {
+                    min = cost.cost(node, index);
+                    insert = node;
+                    location = index;
                 }
             }
             
@@ -1838,7 +2533,7 @@ public class Solution {
                 for (Integer node : list) {
                     
                     // check if feasible
-                    if (cost.contains(node, i) && cost.get(node, i) >= constFeas) {
+                    if (cost.contains(node, i) && cost.cost(node, i) >= constFeas) {
                         continue;
                     }
                     
@@ -1847,8 +2542,8 @@ public class Solution {
                     for (int j = 0; j < route.size() - 1; j++) {
 
                         // insert in position j + 1
-                        double value = times.get(route.get(j), node) 
-                                + times.get(node, route.get(j + 1));
+                        double value = distance(route.get(j), node) 
+                                + distance(node, route.get(j + 1));
                         
                         // check noise
                         if (noise) {
@@ -1856,15 +2551,10 @@ public class Solution {
                             value = Math.max(value + unif, 0);
                         }
                         
-                        // new route
-                        List<Integer> tmp = new ArrayList<>(route);
-                        tmp.add(j + 1, node);
-
                         // check value and feasibility
-                        if (ins > value && feasible(tmp)) {
+                        if (ins > value && feasibleInsert(i, j + 1, node)) {
                             ins = value;
-                            cost.put(node, i, value);
-                            locations.put(node, i, j + 1);
+                            cost.put(node, i, value, j + 1);
                             
                             // if min, update insert
                             if (value < min) {
@@ -1886,29 +2576,17 @@ public class Solution {
             if (min < constFeas) {
                 
                 // insert best node at the min position 
-                int pos = locations.get(insert, location);
-                List<Integer> tmp = new ArrayList<>(routes.get(location));
-                tmp.add(pos, insert);
-                routes.set(location, tmp);
+                int pos = cost.location(insert, location);
+                routes.get(location).add(pos, insert);
                 updateRoute(location);
                 
                 // remove this node
                 list.remove(insert);
-                Set<Integer> row = new HashSet<>(cost.row(insert).keySet());
-                for (Integer ind : row) {
-                    cost.remove(insert, ind);
-                    locations.remove(insert, ind);
-                }
+                cost.removeRow(insert);
                 
                 // check this route again
-                Set<Integer> col = new HashSet<>(cost.rowKeySet());
                 indexes.add(location);
-                for (Integer node : col) {
-                    if (cost.contains(node, location) 
-                            && cost.get(node, location) < constFeas) {
-                        cost.remove(node, location);
-                    }
-                }
+                cost.removeBelow(location, constFeas);
             } else {
                 
                 // create empty route for a node
@@ -1926,11 +2604,7 @@ public class Solution {
 
                 // remove node and check this route again
                 list.remove(node);
-                Set<Integer> row = new HashSet<>(cost.row(insert).keySet());
-                for (Integer ind : row) {
-                    cost.remove(insert, ind);
-                    locations.remove(insert, ind);
-                }
+                cost.removeRow(insert);
                 indexes.add(index);
             }
         }
@@ -1953,20 +2627,15 @@ public class Solution {
         
         // noise interval
         double maxDist = -1;
-        Set<Integer> nodes = param.getNodes();
-        for (Integer n1 : nodes) {
-            for (Integer n2 : nodes) {
-                double value = times.get(n1, n2);
-                if (value > maxDist) {
-                    maxDist = value;
-                }
+        for (double value : times) {
+            if (value > maxDist) {
+                maxDist = value;
             }
         }
         double plus = maxDist * 0.025;
         
-        // tables
-        Table<Integer, Integer, Double> cost = HashBasedTable.create();
-        Table<Integer, Integer, Integer> locations = HashBasedTable.create();
+        // best insertion of each node in each route, new routes may be added
+        InsertionCache cost = new InsertionCache(list, size, routes.size() + list.size());
         
         // routes
         List<Integer> indexes = new ArrayList<>();
@@ -1978,6 +2647,9 @@ public class Solution {
             }
         }
         
+        // removal operators may leave routes without their values
+        updateRoutes();
+        
         // iterate until list is empty
         while (!list.isEmpty()) {
             
@@ -1990,7 +2662,7 @@ public class Solution {
                 for (Integer node : list) {
                     
                     // check if feasible
-                    if (cost.contains(node, i) && cost.get(node, i) >= constFeas) {
+                    if (cost.contains(node, i) && cost.cost(node, i) >= constFeas) {
                         continue;
                     }
                     
@@ -1999,8 +2671,8 @@ public class Solution {
                     for (int j = 0; j < route.size() - 1; j++) {
 
                         // insert in position j + 1
-                        double value = times.get(route.get(j), node) 
-                                + times.get(node, route.get(j + 1));
+                        double value = distance(route.get(j), node) 
+                                + distance(node, route.get(j + 1));
                         
                         // check noise
                         if (noise) {
@@ -2008,15 +2680,10 @@ public class Solution {
                             value = Math.max(value + unif, 0);
                         }
                         
-                        // new route
-                        List<Integer> tmp = new ArrayList<>(route);
-                        tmp.add(j + 1, node);
-
                         // check value and feasibility
-                        if (ins > value && feasible(tmp)) {
+                        if (ins > value && feasibleInsert(i, j + 1, node)) {
                             ins = value;
-                            cost.put(node, i, value);
-                            locations.put(node, i, j + 1);
+                            cost.put(node, i, value, j + 1);
                         }
                     }
                     
@@ -2033,51 +2700,16 @@ public class Solution {
             Integer location = -1;
             
             // check previous values
-            for (Integer node : cost.rowKeySet()) {
-                
-                // sort values
-                Map<Integer, Double> row = cost.row(node);
-                List<Entry<Integer, Double>> tmp = new ArrayList<>(row.entrySet());
-                tmp.sort(new Comparator<Entry<Integer, Double>>() {
-
-                    // new comparator for cases with equal value
-                    @Override
-                    public int compare(Entry<Integer, Double> m1, Entry<Integer, Double> m2) {
-                        if (m1.getValue().equals(m2.getValue())) {
-                            return (m1.getKey() < m2.getKey()) ? -1 : 1;
-                        }
-                        return (m1.getValue() < m2.getValue()) ? -1 : 1;
-                    }
-                });
+            for (int node : cost.rows()) {
                 
                 // compute regret
-                double best = constFeas;
-                double value = 0;
-                int cnt = 0;
-                int loc = -1;
-                for (Entry<Integer, Double> entry : tmp) {
-                    
-                    // best position
-                    if (cnt == 0) {
-                        best = entry.getValue();
-                        loc = entry.getKey();
-                    } else {
-                        
-                        // regret
-                        value += entry.getValue() - best;
-                    }
-                    
-                    cnt++;
-                    if (cnt == len) {
-                        break;
-                    }
-                }
+                double value = cost.regret(node, len);
                 
                 // keep the node with the max regret
-                if (max < value && best < constFeas) {
+                if (max < value && cost.bestCost < constFeas) {
                     max = value;
                     insert = node;
-                    location = loc;
+                    location = cost.bestRoute;
                 }
             }
             
@@ -2085,29 +2717,17 @@ public class Solution {
             if (insert != -1) {
                 
                 // insert best node at the min position 
-                int pos = locations.get(insert, location);
-                List<Integer> tmp = new ArrayList<>(routes.get(location));
-                tmp.add(pos, insert);
-                routes.set(location, tmp);
+                int pos = cost.location(insert, location);
+                routes.get(location).add(pos, insert);
                 updateRoute(location);
                 
                 // remove this node
                 list.remove(insert);
-                Set<Integer> row = new HashSet<>(cost.row(insert).keySet());
-                for (Integer ind : row) {
-                    cost.remove(insert, ind);
-                    locations.remove(insert, ind);
-                }
+                cost.removeRow(insert);
                 
                 // check this route again
-                Set<Integer> col = new HashSet<>(cost.rowKeySet());
                 indexes.add(location);
-                for (Integer node : col) {
-                    if (cost.contains(node, location) 
-                            && cost.get(node, location) < constFeas) {
-                        cost.remove(node, location);
-                    }
-                }
+                cost.removeBelow(location, constFeas);
             } else {
                 
                 // create empty route for a node
@@ -2125,11 +2745,7 @@ public class Solution {
 
                 // remove node and check this route again
                 list.remove(node);
-                Set<Integer> row = new HashSet<>(cost.row(insert).keySet());
-                for (Integer ind : row) {
-                    cost.remove(insert, ind);
-                    locations.remove(insert, ind);
-                }
+                cost.removeRow(insert);
                 indexes.add(index);
             }
         }
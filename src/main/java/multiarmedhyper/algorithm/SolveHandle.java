@@ -0,0 +1,78 @@
+package multiarmedhyper.algorithm;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+
+// search running on a thread of its own, it publishes each new best solution and stops
+// at its next step once cancelled, the best solution found so far is kept
+public final class SolveHandle {
+    
+    private final Algorithm algorithm;
+    private final FutureTask<Algorithm> task;
+    
+    // called on each new best, from the thread of the search that found it, null if none
+    private final Consumer<Incumbent> listener;
+    
+    private final SharedIncumbent incumbent = new SharedIncumbent();
+    private volatile boolean cancelled;
+    
+    private SolveHandle(Algorithm algorithm, Consumer<Incumbent> listener) {
+        this.algorithm = algorithm;
+        this.listener = listener;
+        task = new FutureTask<>(() -> {
+            algorithm.solve();
+            return algorithm;
+        });
+    }
+    
+    // attach a handle to the algorithm and start solving
+    static SolveHandle start(Algorithm algorithm, Consumer<Incumbent> listener) {
+        
+        SolveHandle handle = new SolveHandle(algorithm, listener);
+        algorithm.setHandle(handle);
+        Thread thread = new Thread(handle.task, "solve-" + algorithm.algorithmName());
+        thread.setDaemon(true);
+        thread.start();
+        
+        return handle;
+    }
+    
+    // the search stops at its next step
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    public boolean isDone() {
+        return task.isDone();
+    }
+    
+    // best solution published so far, null before the first one
+    public Incumbent best() {
+        return incumbent.get();
+    }
+    
+    // wait until the search ends
+    public Algorithm join() {
+        
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Solve interrupted.\n" + e.toString());
+        } catch (ExecutionException e) {
+            throw new AssertionError("Solve failed.\n" + e.getCause().toString());
+        }
+    }
+    
+    // keep the solution if it is better than the incumbent, several searches may publish
+    void publish(Incumbent candidate) {
+        if (incumbent.offer(candidate) && listener != null) {
+            listener.accept(candidate);
+        }
+    }
+}
@@ -15,12 +15,21 @@ public class TestExpoHyper extends ExpoHyper {
         super(param);
     }
     
+    // the sequences are applied one at a time
+    @Override
+    public void setBatch(int batch) {
+        if (batch > 1) {
+            throw new AssertionError("TestExpoHyper cannot apply batches of sequences.");
+        }
+    }
+    
     @Override
     public void solve() {
         
         // best solution
         best = new TestSolution(param);
         best.setRandom(rand);
+        best.setParallelScan(parallelScan);
         nLowLevel = best.nLowLevel();
         
         // print basic info
@@ -33,11 +42,13 @@ public class TestExpoHyper extends ExpoHyper {
         // start with out-and-back routes
         best.savingsMethod();
         bestValue = best.getTotalCost();
+        publish(0);
         TestSolution current = new TestSolution(best);
         double currentCost = current.getTotalCost();
         
         // matrixes 
         algorithmStart();
+        startTimes();
         
         // empty list and initial llh
         List<Integer> sequence = new ArrayList<>();
@@ -55,7 +66,7 @@ public class TestExpoHyper extends ExpoHyper {
         app = 0;
         
         // iterate while time < limit
-        while (time < timeLimit && app < iterLimit) {
+        while (time < timeLimit && app < iterLimit && proceed()) {
             
             // append next low level heuristic
             int next = nextLowLevel(last);
@@ -84,16 +95,19 @@ public class TestExpoHyper extends ExpoHyper {
                     currentCost = current.getTotalCost();
                 }
                 
+                // time of the sequence, before the snapshot of a new best solution
+                time = elapsed(starting);
+                
                 // check if new best solution is found
                 if (tmpCost < bestValue) {
                     best = new TestSolution(tmp);
                     bestValue = tmpCost;
+                    publish(app);
                     
                     // update success parameters
                     updateSuccess(sequence);
                 }
                 
-                time = (System.currentTimeMillis() - starting) / 1E3;
                 print(toTable(Double.toString(time), 12) + "|" 
                         + toTable(Integer.toString(app), 10) 
                         + "|" + toTable(Double.toString(Math.round(bestValue * 1E2) / 1E2), 18) 
@@ -101,6 +115,15 @@ public class TestExpoHyper extends ExpoHyper {
                         + "|" + toTable(Double.toString(Math.round(tmpCost * 1E2) / 1E2), 18) 
                         + "|" + toTable(sequence.toString(), 20) + "\n");
                 
+                // exchange best solutions with the other islands
+                if (migration != null && app % migration.interval == 0) {
+                    Solution migrant = migrate();
+                    if (migrant != null) {
+                        current = (TestSolution) migrant;
+                        currentCost = current.getTotalCost();
+                    }
+                }
+                
                 // new list
                 sequence = new ArrayList<>();
                 next = rand.nextInt(nLowLevel);
@@ -110,7 +133,7 @@ public class TestExpoHyper extends ExpoHyper {
             last = next;
             
             // update time
-            time = (System.currentTimeMillis() - starting) / 1E3;
+            time = elapsed(starting);
         }
         
         status = best.isFeasible();
@@ -120,6 +143,11 @@ public class TestExpoHyper extends ExpoHyper {
         printSolution();
     }
     
+    @Override
+    Solution copy(Solution solution) {
+        return new TestSolution(solution);
+    }
+    
     @Override
     public String algorithmName() {
         return "TestExpoHyper[" + eta + "," + delta + "]";
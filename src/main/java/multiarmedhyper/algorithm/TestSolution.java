@@ -15,9 +15,7 @@ public class TestSolution extends Solution {
     }
     
     TestSolution(Solution tmp) {
-        this(tmp.param);
-        rand = tmp.rand;
-        copySolution(tmp);
+        super(tmp);
     }
     
     void destroyAllRoutes() {
@@ -11,12 +11,21 @@ public class TestThompsonHyper extends ThompsonHyper {
         super(param);
     }
     
+    // the sequences are applied one at a time
+    @Override
+    public void setBatch(int batch) {
+        if (batch > 1) {
+            throw new AssertionError("TestThompsonHyper cannot apply batches of sequences.");
+        }
+    }
+    
     @Override
     public void solve() {
         
         // best solution
         best = new TestSolution(param);
         best.setRandom(rand);
+        best.setParallelScan(parallelScan);
         nLowLevel = best.nLowLevel();
         
         // print basic info
@@ -29,11 +38,13 @@ public class TestThompsonHyper extends ThompsonHyper {
         // start with out-and-back routes
         best.savingsMethod();
         bestValue = best.getTotalCost();
+        publish(0);
         TestSolution current = new TestSolution(best);
         double currentCost = current.getTotalCost();
         
         // matrixes 
         algorithmStart();
+        startTimes();
         
         // empty list and initial llh
         List<Integer> sequence = new ArrayList<>();
@@ -51,7 +62,7 @@ public class TestThompsonHyper extends ThompsonHyper {
         app = 0;
         
         // iterate while time < limit
-        while (time < timeLimit && app < iterLimit) {
+        while (time < timeLimit && app < iterLimit && proceed()) {
             
             // append next low level heuristic
             int next = nextLowLevel(last);
@@ -80,16 +91,19 @@ public class TestThompsonHyper extends ThompsonHyper {
                     currentCost = current.getTotalCost();
                 }
                 
+                // time of the sequence, before the snapshot of a new best solution
+                time = elapsed(starting);
+                
                 // check if new best solution is found
                 if (tmpCost < bestValue) {
                     best = new TestSolution(tmp);
                     bestValue = tmpCost;
+                    publish(app);
                     
                     // update success parameters
                     updateSuccess(sequence);
                 }
                 
-                time = (System.currentTimeMillis() - starting) / 1E3;
                 print(toTable(Double.toString(time), 12) + "|" 
                         + toTable(Integer.toString(app), 10) 
                         + "|" + toTable(Double.toString(Math.round(bestValue * 1E2) / 1E2), 18) 
@@ -97,6 +111,15 @@ public class TestThompsonHyper extends ThompsonHyper {
                         + "|" + toTable(Double.toString(Math.round(tmpCost * 1E2) / 1E2), 18) 
                         + "|" + toTable(sequence.toString(), 20) + "\n");
                 
+                // exchange best solutions with the other islands
+                if (migration != null && app % migration.interval == 0) {
+                    Solution migrant = migrate();
+                    if (migrant != null) {
+                        current = (TestSolution) migrant;
+                        currentCost = current.getTotalCost();
+                    }
+                }
+                
                 // new list
                 sequence = new ArrayList<>();
                 next = rand.nextInt(nLowLevel);
@@ -106,7 +129,7 @@ public class TestThompsonHyper extends ThompsonHyper {
             last = next;
             
             // update time
-            time = (System.currentTimeMillis() - starting) / 1E3;
+            time = elapsed(starting);
         }
         
         status = best.isFeasible();
@@ -116,6 +139,11 @@ public class TestThompsonHyper extends ThompsonHyper {
         printSolution();
     }
     
+    @Override
+    Solution copy(Solution solution) {
+        return new TestSolution(solution);
+    }
+    
     @Override
     public String algorithmName() {
         return "TestThompsonHyper[" + delta + "]";
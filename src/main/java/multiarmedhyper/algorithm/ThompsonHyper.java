@@ -3,19 +3,27 @@ package multiarmedhyper.algorithm;
 
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import multiarmedhyper.data.ParameterReader;
-import org.apache.commons.math3.distribution.BetaDistribution;
+import org.apache.commons.math3.special.Beta;
 
 public class ThompsonHyper extends MultiArmedHyperHeuristic {
     
-    // matrixes and maps
-    Table<Integer, Integer, Integer> mN;
-    Table<Integer, Integer, Integer> mP;
-    Map<Integer, Integer> mM;
-    Map<Integer, Integer> mQ;
+    // counts for sequence creation and application, the trials of a transition grow by the
+    // same credit as its successes
+    double[][] mN;
+    double[][] mP;
+    int[] mM;
+    int[] mQ;
+    
+    // knots per arm on each side of the mean and standard deviations from the mean where
+    // the distribution of an arm is taken as zero or one
+    static final int KNOTS = 16;
+    static final double WINDOW = 10.0;
     
     public ThompsonHyper(ParameterReader param) {
         super(param);
@@ -34,7 +42,7 @@ public class ThompsonHyper extends MultiArmedHyperHeuristic {
         for (int i = 0; i < nLowLevel; i++) {
 
             // sample prob
-            double theta = sampleBeta(mP.get(last, i), mN.get(last, i));
+            double theta = sampleBeta(mP[last][i], mN[last][i]);
             if (theta > max) {
                 max = theta;
                 next = i;
@@ -47,8 +55,8 @@ public class ThompsonHyper extends MultiArmedHyperHeuristic {
     @Override
     int apply(int next) {
         
-        double theta0 = sampleBeta(mM.get(next) - mQ.get(next), mM.get(next));
-        double theta1 = sampleBeta(mQ.get(next), mM.get(next));
+        double theta0 = sampleBeta(mM[next] - mQ[next], mM[next]);
+        double theta1 = sampleBeta(mQ[next], mM[next]);
         return (theta0 < theta1) ? 1 : 0;
     }
     
@@ -56,41 +64,43 @@ public class ThompsonHyper extends MultiArmedHyperHeuristic {
     void algorithmStart() {
         
         // matrixes sequence creation
-        mN = HashBasedTable.create();
-        mP = HashBasedTable.create();
+        mN = new double[nLowLevel][nLowLevel];
+        mP = new double[nLowLevel][nLowLevel];
         
-        // maps for sequences application
-        mM = new HashMap<>();
-        mQ = new HashMap<>();
+        // vectors for sequences application
+        mM = new int[nLowLevel];
+        mQ = new int[nLowLevel];
         
         // initial values
         for (int i = 0; i < nLowLevel; i++) {
             
-            // application matrixes
-            mM.put(i, 2);
-            mQ.put(i, 1);
+            // application vectors
+            mM[i] = 2;
+            mQ[i] = 1;
             
             // creation matrixes
-            for (int j = 0; j < nLowLevel; j++) {
-                mN.put(i, j, 2);
-                mP.put(i, j, 1);
-                mN.put(i, j, 2);
-                mP.put(i, j, 1);
-            }
+            Arrays.fill(mN[i], 2);
+            Arrays.fill(mP[i], 1);
         }
     }
     
     @Override
     void updateTmp(List<Integer> sequence) {
         
+        // credit of each heuristic for this update
+        double[] credit = new double[nLowLevel];
+        for (int j = 0; j < nLowLevel; j++) {
+            credit[j] = credit(j);
+        }
+        
         // update totals
         for (int i = 0; i < sequence.size(); i++) {
 
             int index = sequence.get(i);
             for (int j = 0; j < nLowLevel; j++) {
-                mN.put(index, j, mN.get(index, j) + 1);
+                mN[index][j] += credit[j];
             }
-            mM.put(index, mM.get(index) + 1);
+            mM[index]++;
         }
 
         // update suc parameters
@@ -98,75 +108,247 @@ public class ThompsonHyper extends MultiArmedHyperHeuristic {
 
             int index1 = sequence.get(i - 1);
             int index2 = sequence.get(i);
-            mP.put(index1, index2, mP.get(index1, index2) + 1);
+            mP[index1][index2] += credit[index2];
         }
         int index = sequence.get(sequence.size() - 1);
-        mQ.put(index, mQ.get(index) + 1);
+        mQ[index]++;
     }
     
+    // beta with n1 successes in n2 trials, from two gamma draws, the failures are at least
+    // one as the counts start with one failure
     double sampleBeta(double n1, double n2) {
-        double number = n2 - n1 < 1 ? 1 : n2 - n1;
-        BetaDistribution beta = new BetaDistribution(n1, number);
-        return beta.inverseCumulativeProbability(rand.nextDouble());
+        double x = sampleGamma(n1);
+        double y = sampleGamma(n2 - n1);
+        return x / (x + y);
     }
     
+    // gamma with unit scale, Marsaglia and Tsang method
+    double sampleGamma(double shape) {
+        
+        // boost shapes below one
+        if (shape < 1) {
+            return sampleGamma(shape + 1) * Math.pow(rand.nextDouble(), 1.0 / shape);
+        }
+        
+        double d = shape - 1.0 / 3.0;
+        double c = 1.0 / Math.sqrt(9.0 * d);
+        while (true) {
+            
+            // normal with positive cube
+            double x;
+            double v;
+            do {
+                x = rand.nextGaussian();
+                v = 1.0 + c * x;
+            } while (v <= 0);
+            v = v * v * v;
+            
+            // squeeze and acceptance
+            double u = rand.nextDouble();
+            double x2 = x * x;
+            if (u < 1.0 - 0.0331 * x2 * x2 
+                    || Math.log(u) < 0.5 * x2 + d * (1.0 - v + Math.log(v))) {
+                return d * v;
+            }
+        }
+    }
+    
+    // probability of each transition, that is the probability of each arm of the row
+    // having the largest draw
     @Override
     public Table<Integer, Integer, Double> getTransitions() {
         Table<Integer, Integer, Double> matrix = HashBasedTable.create();
         
+        double[] alpha = new double[nLowLevel];
+        double[] beta = new double[nLowLevel];
         for (int i = 0; i < nLowLevel; i++) {
             
-            // vector with probabilities
-            Double[] vector = new Double[nLowLevel];
-            for (int k = 0; k < vector.length; k++) {
-                vector[k] = 0.0;
-            }
-            
-            // simulate
-            for (int k = 0; k < 1000; k++) {
-                int next = -1;
-                double max = -1;
-                for (int j = 0; j < nLowLevel; j++) {
-
-                    // sample prob
-                    double theta = sampleBeta(mP.get(i, j), mN.get(i, j));
-                    if (theta > max) {
-                        max = theta;
-                        next = j;
-                    }
-                }
-                
-                // update vector
-                vector[next] = vector[next] + 1;
+            // parameters of the draws of sampleBeta
+            for (int j = 0; j < nLowLevel; j++) {
+                alpha[j] = mP[i][j];
+                beta[j] = mN[i][j] - mP[i][j];
             }
             
             // add values
-            for (int j = 0; j < vector.length; j++) {
-                matrix.put(i, j, vector[j] / 1000.0);
+            double[] prob = maxProbabilities(alpha, beta);
+            for (int j = 0; j < nLowLevel; j++) {
+                matrix.put(i, j, prob[j]);
             }
         }
         
         return matrix;
     }
     
+    // probability of applying the sequence, the draws of apply are beta(s, f) and beta(f, s)
+    // with f = mQ and s = mM - mQ
     @Override
     public Map<Integer, Double> getApply() {
         Map<Integer, Double> matrix = new HashMap<>();
         
         for (int i = 0; i < nLowLevel; i++) {
-            
-            // simulate 
-            double prob = 0;
-            for (int j = 0; j < 1000; j++) {
-                double theta0 = sampleBeta(mM.get(i) - mQ.get(i), mM.get(i));
-                double theta1 = sampleBeta(mQ.get(i), mM.get(i));
-                double value = (theta0 < theta1) ? 1 : 0;
-                prob += value;
-            }
-            prob = prob / 1000;
-            matrix.put(i, prob);
+            int f = mQ[i];
+            int s = Math.max(1, mM[i] - mQ[i]);
+            matrix.put(i, probabilityGreater(s, f, f, s));
         }
         
         return matrix;
     }
+    
+    // P(Y > X) for X ~ beta(a1, b1) and Y ~ beta(a2, b2), exact sum for integer parameters
+    // of the terms B(a1 + i, b1 + b2) / ((b2 + i) B(1 + i, b2) B(a1, b1)), i < a2, each
+    // term is obtained from the previous one
+    static double probabilityGreater(int a1, int b1, int a2, int b2) {
+        
+        double log = Beta.logBeta(a1, b1 + b2) - Beta.logBeta(a1, b1);
+        double total = Math.exp(log);
+        for (int i = 0; i + 1 < a2; i++) {
+            log += Math.log((a1 + i) * (double) (b2 + i) / ((a1 + b1 + b2 + i) * (double) (1 + i)));
+            total += Math.exp(log);
+        }
+        
+        return Math.min(1.0, total);
+    }
+    
+    // P(arm j has the largest draw) for beta(alpha[j], beta[j]) arms, the density of each arm
+    // times the distributions of the others is integrated over knots placed around the
+    // means, arms with the same parameters are grouped
+    static double[] maxProbabilities(double[] alpha, double[] beta) {
+        
+        // groups of arms with equal parameters
+        int n = alpha.length;
+        int[] group = new int[n];
+        int[] first = new int[n];
+        int[] size = new int[n];
+        int groups = 0;
+        for (int j = 0; j < n; j++) {
+            group[j] = groups;
+            for (int k = 0; k < j; k++) {
+                if (alpha[k] == alpha[j] && beta[k] == beta[j]) {
+                    group[j] = group[k];
+                    break;
+                }
+            }
+            if (group[j] == groups) {
+                first[groups] = j;
+                groups++;
+            }
+            size[group[j]]++;
+        }
+        
+        // window of each group, the distribution is zero before and one after it, the knots
+        // are evenly spaced in standard deviations inside the window
+        double[] low = new double[groups];
+        double[] high = new double[groups];
+        List<Double> knots = new ArrayList<>();
+        for (int g = 0; g < groups; g++) {
+            double a = alpha[first[g]];
+            double b = beta[first[g]];
+            double mean = a / (a + b);
+            double sd = Math.sqrt(a * b / ((a + b) * (a + b) * (a + b + 1)));
+            low[g] = Math.max(0.0, mean - WINDOW * sd);
+            high[g] = Math.min(1.0, mean + WINDOW * sd);
+            for (int k = 0; k <= 2 * KNOTS; k++) {
+                knots.add(low[g] + k * (high[g] - low[g]) / (2 * KNOTS));
+            }
+        }
+        double[] x = knots.stream().mapToDouble(Double::doubleValue).sorted().distinct().toArray();
+        
+        // logarithms at the knots and at the middle points, shared by all the densities
+        double[][] logs = new double[4][x.length];
+        for (int t = 0; t < x.length; t++) {
+            logs[0][t] = Math.log(x[t]);
+            logs[1][t] = Math.log(1 - x[t]);
+            if (t > 0) {
+                logs[2][t] = Math.log((x[t - 1] + x[t]) / 2);
+                logs[3][t] = Math.log(1 - (x[t - 1] + x[t]) / 2);
+            }
+        }
+        
+        // distribution of each group at the knots, Simpson rule over the density inside the
+        // window and normalized to one at its end
+        double[][] cdf = new double[groups][x.length];
+        for (int g = 0; g < groups; g++) {
+            double a = alpha[first[g]];
+            double b = beta[first[g]];
+            double norm = Beta.logBeta(a, b);
+            double acum = 0.0;
+            double left = 0.0;
+            int start = -1;
+            int end = -1;
+            for (int t = 0; t < x.length; t++) {
+                if (x[t] < low[g]) {
+                    continue;
+                }
+                if (x[t] > high[g]) {
+                    break;
+                }
+                double right = density(logs[0][t], logs[1][t], a, b, norm);
+                if (start < 0) {
+                    start = t;
+                } else {
+                    double mid = density(logs[2][t], logs[3][t], a, b, norm);
+                    acum += (x[t] - x[t - 1]) / 6 * (left + 4 * mid + right);
+                }
+                cdf[g][t] = acum;
+                left = right;
+                end = t;
+            }
+            for (int t = start; t <= end; t++) {
+                cdf[g][t] /= acum;
+            }
+            for (int t = end + 1; t < x.length; t++) {
+                cdf[g][t] = 1.0;
+            }
+        }
+        
+        // integrate over the intervals between knots, the other groups are taken at the middle
+        double[] prob = new double[groups];
+        double[] middle = new double[groups];
+        for (int t = 0; t + 1 < x.length; t++) {
+            double product = 1.0;
+            for (int g = 0; g < groups; g++) {
+                middle[g] = power((cdf[g][t] + cdf[g][t + 1]) / 2, size[g]);
+                product *= middle[g];
+            }
+            if (product == 0) {
+                continue;
+            }
+            for (int g = 0; g < groups; g++) {
+                double mass = power(cdf[g][t + 1], size[g]) - power(cdf[g][t], size[g]);
+                if (mass > 0) {
+                    prob[g] += mass / size[g] * product / middle[g];
+                }
+            }
+        }
+        
+        // normalize the discretization error
+        double total = 0.0;
+        for (int j = 0; j < n; j++) {
+            total += prob[group[j]];
+        }
+        double[] values = new double[n];
+        for (int j = 0; j < n; j++) {
+            values[j] = prob[group[j]] / total;
+        }
+        
+        return values;
+    }
+    
+    // beta density from the logarithms of x and 1 - x and of the beta function
+    static double density(double logX, double logY, double a, double b, double norm) {
+        
+        double log = -norm;
+        if (a > 1) {
+            log += (a - 1) * logX;
+        }
+        if (b > 1) {
+            log += (b - 1) * logY;
+        }
+        
+        return Math.exp(log);
+    }
+    
+    static double power(double value, int exponent) {
+        return (exponent == 1) ? value : Math.pow(value, exponent);
+    }
 }
\ No newline at end of file
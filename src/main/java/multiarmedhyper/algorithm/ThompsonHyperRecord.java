@@ -16,6 +16,6 @@ public class ThompsonHyperRecord extends ThompsonHyper {
     
     @Override
     boolean acceptSolution(double tmpCost) {
-        return (tmpCost <  (1 + delta) * bestValue);
+        return (tmpCost <  (1 + delta) * reference());
     }
 }
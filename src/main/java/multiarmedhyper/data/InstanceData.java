@@ -0,0 +1,225 @@
+package multiarmedhyper.data;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+// immutable array-backed view of an instance, built once per instance
+public final class InstanceData {
+    
+    // instance global parameters
+    private final int nVehicles;
+    private final double capacity;
+    private final int depot;
+    
+    // customers ids in ascending order, depot excluded
+    private final int[] customers;
+    
+    // details indexed by node id
+    private final double[] early;
+    private final double[] late;
+    private final double[] service;
+    private final double[] demand;
+    private final double[] x;
+    private final double[] y;
+    
+    // distance between all nodes, row-major
+    private final double[] distance;
+    private final int size;
+    
+    // largest distance from each node
+    private final double[] maxDistance;
+    
+    // granular neighbourhoods, arcs between each customer and its nearest
+    // reachable customers, null when all arcs are considered
+    private final int neighbours;
+    private final boolean[] shortArcs;
+    private final int[] partnersStart;
+    private final int[] partners;
+    
+    InstanceData(ParameterReader param) {
+        
+        // global values
+        nVehicles = param.nVehicles;
+        capacity = param.capacity;
+        depot = param.depot;
+        distance = param.time;
+        size = param.size;
+        
+        // arrays indexed by node id
+        early = new double[size];
+        late = new double[size];
+        service = new double[size];
+        demand = new double[size];
+        x = new double[size];
+        y = new double[size];
+        for (Integer node : param.positions.keySet()) {
+            early[node] = param.windows.get(node)[0];
+            late[node] = param.windows.get(node)[1];
+            service[node] = param.service.get(node);
+            demand[node] = param.demand.get(node);
+            x[node] = param.positions.get(node)[0];
+            y[node] = param.positions.get(node)[1];
+        }
+        
+        // largest distance of each row
+        maxDistance = new double[size];
+        for (int n1 = 0; n1 < size; n1++) {
+            for (int i = n1 * size; i < (n1 + 1) * size; i++) {
+                maxDistance[n1] = Math.max(maxDistance[n1], distance[i]);
+            }
+        }
+        
+        // customers sorted by id
+        customers = param.positions.keySet().stream()
+                .filter(node -> node != depot)
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+        
+        // nearest neighbours
+        neighbours = param.neighbours;
+        if (neighbours > 0) {
+            shortArcs = new boolean[size * size];
+            partnersStart = new int[size + 1];
+            computeNeighbours();
+            partners = new int[partnersStart[size]];
+            fillPartners();
+        } else {
+            shortArcs = null;
+            partnersStart = null;
+            partners = null;
+        }
+    }
+    
+    // mark the arcs to the nearest customers reachable in either direction
+    private void computeNeighbours() {
+        
+        Integer[] order = new Integer[customers.length];
+        for (int n1 : customers) {
+            
+            // reachable customers sorted by distance
+            int total = 0;
+            for (int n2 : customers) {
+                if (n2 != n1 && (reachable(n1, n2) || reachable(n2, n1))) {
+                    order[total++] = n2;
+                }
+            }
+            Arrays.sort(order, 0, total, Comparator.comparingDouble(n2 -> distance[n1 * size + n2]));
+            
+            // keep the nearest ones in both directions
+            for (int i = 0; i < Math.min(neighbours, total); i++) {
+                int n2 = order[i];
+                shortArcs[n1 * size + n2] = true;
+                shortArcs[n2 * size + n1] = true;
+            }
+        }
+        
+        // count partners of each node
+        for (int n1 = 0; n1 < size; n1++) {
+            int count = 0;
+            for (int n2 = 0; n2 < size; n2++) {
+                if (shortArcs[n1 * size + n2]) {
+                    count++;
+                }
+            }
+            partnersStart[n1 + 1] = partnersStart[n1] + count;
+        }
+    }
+    
+    // store the partners of each node sorted by distance
+    private void fillPartners() {
+        
+        for (int node = 0; node < size; node++) {
+            int n1 = node;
+            int from = partnersStart[n1];
+            Integer[] row = new Integer[partnersStart[n1 + 1] - from];
+            int pos = 0;
+            for (int n2 = 0; n2 < size; n2++) {
+                if (shortArcs[n1 * size + n2]) {
+                    row[pos++] = n2;
+                }
+            }
+            Arrays.sort(row, Comparator.comparingDouble(n2 -> distance[n1 * size + n2]));
+            for (int i = 0; i < row.length; i++) {
+                partners[from + i] = row[i];
+            }
+        }
+    }
+    
+    // whether n2 can be visited right after n1 without missing its window
+    private boolean reachable(int n1, int n2) {
+        return early[n1] + service[n1] + distance[n1 * size + n2] <= late[n2];
+    }
+    
+    public int getNVehicles() {
+        return nVehicles;
+    }
+    
+    public double getCapacity() {
+        return capacity;
+    }
+    
+    public int getDepot() {
+        return depot;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    // number of nearest neighbours, not positive when neighbourhoods are complete
+    public int getNeighbours() {
+        return neighbours;
+    }
+    
+    // the arrays below are shared by all solutions, they must not be modified
+    public int[] getCustomers() {
+        return customers;
+    }
+    
+    public double[] getEarly() {
+        return early;
+    }
+    
+    public double[] getLate() {
+        return late;
+    }
+    
+    public double[] getService() {
+        return service;
+    }
+    
+    public double[] getDemand() {
+        return demand;
+    }
+    
+    public double[] getX() {
+        return x;
+    }
+    
+    public double[] getY() {
+        return y;
+    }
+    
+    public double[] getDistance() {
+        return distance;
+    }
+    
+    public double[] getMaxDistance() {
+        return maxDistance;
+    }
+    
+    // row-major, true for the arcs between nearest neighbours, null if not granular
+    public boolean[] getShortArcs() {
+        return shortArcs;
+    }
+    
+    // partners of node n are in positions getPartnersStart()[n] to getPartnersStart()[n + 1]
+    public int[] getPartnersStart() {
+        return partnersStart;
+    }
+    
+    public int[] getPartners() {
+        return partners;
+    }
+}
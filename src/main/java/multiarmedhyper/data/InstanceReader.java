@@ -1,6 +1,5 @@
 package multiarmedhyper.data;
 
-import com.google.common.collect.HashBasedTable;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
@@ -123,7 +122,7 @@ public class InstanceReader extends ParameterReader {
             nodes.addAll(positions.keySet());
 
             // create a matrix with all distances
-            time = HashBasedTable.create();
+            createMatrix();
             
             // read file
             BufferedReader buffer = new BufferedReader(new FileReader(csv));
@@ -134,11 +133,14 @@ public class InstanceReader extends ParameterReader {
                     double dist = Double.parseDouble(token.nextToken());
                     
                     if (nodes.contains(i1) && nodes.contains(i2)) {
-                        time.put(i1, i2, dist);
+                        time[i1 * size + i2] = dist;
                     }
                 }
             }
             
+            // data must reference the new matrix
+            data = new InstanceData(this);
+            
         } catch (IOException e) {
             throw new AssertionError("Reading matrix file error.\n" + e.toString());
         }
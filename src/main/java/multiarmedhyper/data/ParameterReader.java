@@ -1,12 +1,11 @@
 
 package multiarmedhyper.data;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 public abstract class ParameterReader {
     
@@ -25,12 +24,19 @@ public abstract class ParameterReader {
     Map<Integer, Double[]> windows;
     Map<Integer, Double> service;
     
-    // distance between all nodes
-    Table<Integer, Integer, Double> time;
+    // distance between all nodes, dense row-major matrix indexed by node id
+    double[] time;
+    int size;
     
     // distance precision
     boolean typeDouble = false;
     
+    // nearest neighbours kept per customer, all customers if not positive
+    int neighbours = 0;
+    
+    // array-backed data shared by all solutions
+    InstanceData data;
+    
     public ParameterReader(String instance) {
         this.instance = instance;
     }
@@ -41,6 +47,7 @@ public abstract class ParameterReader {
         
         boolean status = data();
         computeTime();
+        data = new InstanceData(this);
         
         return status;
     }
@@ -49,28 +56,44 @@ public abstract class ParameterReader {
         this.typeDouble = typeDouble;
     }
     
+    public void setNeighbours(int neighbours) {
+        this.neighbours = neighbours;
+    }
+    
     private void computeTime() {
         
-        // all indexes
-        Set<Integer> nodes = new HashSet<>();
-        nodes.addAll(positions.keySet());
-        
         // create a matrix with all distances
-        time = HashBasedTable.create();
+        createMatrix();
+        
+        // coordinates indexed by node id
+        int[] nodes = positions.keySet().stream().mapToInt(Integer::intValue).toArray();
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int node : nodes) {
+            x[node] = positions.get(node)[0];
+            y[node] = positions.get(node)[1];
+        }
         
-        // distance computation, round to the second decimal digit
-        for (Integer n1 : nodes) {
-            
-            Double[] pos1 = positions.get(n1);
-            for (Integer n2 : nodes) {
-                
-                Double[] pos2 = positions.get(n2);
-                double value = distancePrecision(
-                        Math.sqrt(Math.pow(pos1[0] - pos2[0], 2) 
-                                + Math.pow(pos1[1] - pos2[1], 2)));
-                time.put(n1, n2, value);
+        // distance computation by blocks of rows in parallel, each row written by one task
+        IntStream.range(0, nodes.length).parallel().forEach(i -> {
+            int n1 = nodes[i];
+            for (int n2 : nodes) {
+                double dx = x[n1] - x[n2];
+                double dy = y[n1] - y[n2];
+                time[n1 * size + n2] = distancePrecision(Math.sqrt(dx * dx + dy * dy));
             }
+        });
+    }
+    
+    // empty matrix large enough for the largest node id
+    void createMatrix() {
+        
+        int max = 0;
+        for (Integer node : positions.keySet()) {
+            max = Math.max(max, node);
         }
+        size = max + 1;
+        time = new double[size * size];
     }
     
     private double distancePrecision(double distance) {
@@ -82,12 +105,26 @@ public abstract class ParameterReader {
         }
     }
     
+    public InstanceData getData() {
+        return data;
+    }
+    
     public Map<Integer, Double[]> getTimeWindows() {
         return new HashMap<>(windows);
     }
     
-    public Table<Integer, Integer, Double> getTime() {
-        return HashBasedTable.create(time);
+    // distance matrix shared by all solutions, it must not be modified
+    public double[] getDistance() {
+        return time;
+    }
+    
+    // row length of the distance matrix
+    public int getSize() {
+        return size;
+    }
+    
+    public double getDistance(int n1, int n2) {
+        return time[n1 * size + n2];
     }
     
     public Map<Integer, Double> getService() {
@@ -127,7 +164,8 @@ public abstract class ParameterReader {
         service.clear();
         
         // clear matrix 
-        time.clear();
+        time = null;
+        data = null;
         
         instance = null;
     }